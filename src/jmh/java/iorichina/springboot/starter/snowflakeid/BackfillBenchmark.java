@@ -0,0 +1,48 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * genId(long) of past times, walking over a window of 4096 milliseconds a day ago
+ * <p>
+ * PACKED has a backfill table of 4096 slots, so the walk stays in its slots
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackfillBenchmark {
+    @Param({"PACKED", "CACHE", "RECYCLABLE"})
+    String strategy;
+
+    SnowFlakeIdHelper helper;
+    long base;
+    int i;
+
+    @Setup
+    public void setup() {
+        helper = "PACKED".equals(strategy)
+                ? new SnowFlakeIdHelper(BenchmarkHelpers.START_TIME, TimeUnit.MILLISECONDS, 0, 0, 41, 0, 0, 22, 1, 4096)
+                : BenchmarkHelpers.create(strategy, "MILLISECONDS");
+        base = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+    }
+
+    @Benchmark
+    public long genIdWithTime() {
+        return helper.genId(base + (i++ & 4095));
+    }
+}
@@ -0,0 +1,35 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * helpers built the same way as {@link SnowFlakeIdAutoConfig}
+ * <p>
+ * layouts are sized so that the sequence of a tick never runs out during a measurement,
+ * the numbers are the cost per ID rather than the capacity of 2^bitsOfAutoincrement per tick
+ */
+final class BenchmarkHelpers {
+    static final LocalDateTime START_TIME = LocalDateTime.of(2025, 7, 19, 0, 0);
+
+    private BenchmarkHelpers() {
+    }
+
+    /**
+     * @param strategy PACKED, STRIPED, CACHE or RECYCLABLE(deprecated, kept as the baseline of the original one)
+     * @param layout   MILLISECONDS: 41 bits of time + 22 bits of autoincrement;
+     *                 SECONDS: 31 bits of time + 32 bits of autoincrement
+     */
+    @SuppressWarnings("deprecation")
+    static SnowFlakeIdHelper create(String strategy, String layout) {
+        TimeUnit unit = TimeUnit.valueOf(layout);
+        long bitsOfTime = TimeUnit.SECONDS == unit ? 31 : 41;
+        long bitsOfAutoincrement = 63 - bitsOfTime;
+        return switch (strategy) {
+            case "CACHE" -> new SnowFlakeIdHelper(START_TIME, unit, 0, 0, bitsOfTime, 0, 0, bitsOfAutoincrement, 1024, false);
+            case "RECYCLABLE" -> new SnowFlakeIdHelper(START_TIME, unit, 0, 0, bitsOfTime, 0, 0, bitsOfAutoincrement, 1000);
+            case "STRIPED" -> new SnowFlakeIdHelper(START_TIME, unit, 0, 0, bitsOfTime, 0, 0, bitsOfAutoincrement, 0, 1024);
+            default -> new SnowFlakeIdHelper(START_TIME, unit, 0, 0, bitsOfTime, 0, 0, bitsOfAutoincrement);
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IdCodec encode and decode over 1024 generated IDs, Long.toString(long) as baseline
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    @Param({"BASE32", "BASE62"})
+    String codecName;
+
+    IdCodec codec;
+    long[] ids;
+    byte[][] encoded;
+    byte[] buffer;
+    int i;
+
+    @Setup
+    public void setup() {
+        codec = "BASE32".equals(codecName) ? IdCodec.BASE32 : IdCodec.BASE62;
+        SnowFlakeIdHelper helper = BenchmarkHelpers.create("PACKED", "MILLISECONDS");
+        ids = new long[1024];
+        encoded = new byte[1024][];
+        long base = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+        for (int j = 0; j < ids.length; j++) {
+            ids[j] = helper.genId(base + j * 997L);
+            encoded[j] = new byte[codec.getLength()];
+            codec.encode(ids[j], encoded[j], 0);
+        }
+        buffer = new byte[codec.getLength()];
+    }
+
+    @Benchmark
+    public byte[] encodeBytes() {
+        codec.encode(ids[i++ & 1023], buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public String encodeString() {
+        return codec.encode(ids[i++ & 1023]);
+    }
+
+    @Benchmark
+    public long decodeBytes() {
+        return codec.decode(encoded[i++ & 1023], 0);
+    }
+
+    @Benchmark
+    public String longToString() {
+        return Long.toString(ids[i++ & 1023]);
+    }
+}
@@ -0,0 +1,63 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * genId() of current time by strategy and layout, under 1/4/16/64 threads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenIdBenchmark {
+    @Param({"PACKED", "STRIPED", "CACHE", "RECYCLABLE"})
+    String strategy;
+    @Param({"MILLISECONDS", "SECONDS"})
+    String layout;
+
+    SnowFlakeIdHelper helper;
+
+    @Setup
+    public void setup() {
+        helper = BenchmarkHelpers.create(strategy, layout);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long genId_1() {
+        return helper.genId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long genId_4() {
+        return helper.genId();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long genId_16() {
+        return helper.genId();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long genId_64() {
+        return helper.genId();
+    }
+}
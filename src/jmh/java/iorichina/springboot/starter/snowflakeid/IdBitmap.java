@@ -0,0 +1,72 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * concurrent off-heap bitmap of IDs of one helper, one bit per tick and sequence in a window of ticks:
+ * (tick - firstTick) << bitsOfAutoincrement | sequence
+ * <p>
+ * tenant and node are fixed in one helper, so the bitmap is dense, such as 30MB for one minute of milliseconds with 12 bits of autoincrement;
+ * marking is one atomic OR, no boxing and no lock
+ */
+final class IdBitmap {
+    /**
+     * 2^27 words(1GB) per direct buffer
+     */
+    private static final int CHUNK_SHIFT = 27;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final long leftOfTime;
+    private final long bitsOfAutoincrement;
+    private final long maxAutoincrementNum;
+    private final long firstTick;
+    private final long bits;
+    private final ByteBuffer[] chunks;
+
+    /**
+     * @param firstTick first tick of the window
+     * @param ticks     ticks in the window
+     */
+    IdBitmap(SnowFlakeIdHelper helper, long firstTick, long ticks) {
+        this.leftOfTime = helper.getLeftOfTime();
+        this.bitsOfAutoincrement = helper.getBitsOfAutoincrement();
+        this.maxAutoincrementNum = helper.getMaxAutoincrementNum();
+        this.firstTick = firstTick;
+        this.bits = ticks << bitsOfAutoincrement;
+        long words = (bits + 63) >>> 6;
+        this.chunks = new ByteBuffer[(int) ((words + CHUNK_MASK) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            long size = Math.min(CHUNK_MASK + 1, words - ((long) i << CHUNK_SHIFT));
+            chunks[i] = ByteBuffer.allocateDirect((int) (size << 3));
+        }
+    }
+
+    /**
+     * tick of ID since startTime
+     */
+    long tickOf(long id) {
+        return id >>> leftOfTime;
+    }
+
+    /**
+     * @return 1 if marked first, 0 if marked before(duplicated), -1 if out of the window
+     */
+    int mark(long id) {
+        long bit = ((tickOf(id) - firstTick) << bitsOfAutoincrement) | (id & maxAutoincrementNum);
+        if (bit < 0 || bit >= bits) {
+            return -1;
+        }
+        long word = bit >>> 6;
+        long mask = 1L << bit;
+        long old = (long) WORDS.getAndBitwiseOr(chunks[(int) (word >>> CHUNK_SHIFT)], (int) ((word & CHUNK_MASK) << 3), mask);
+        return 0 == (old & mask) ? 1 : 0;
+    }
+
+    long getBytes() {
+        return ((bits + 63) >>> 6) << 3;
+    }
+}
@@ -0,0 +1,30 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * clock stepping back jumpMillis every everyMillis of the source, like NTP corrections, to stress clockRegressionPolicy
+ */
+final class JumpingTimeSource implements TimeSource {
+    private final TimeSource source;
+    private final long jumpMillis;
+    private final long everyMillis;
+    private final long startMillis;
+
+    JumpingTimeSource(TimeSource source, long jumpMillis, long everyMillis) {
+        this.source = source;
+        this.jumpMillis = jumpMillis;
+        this.everyMillis = everyMillis;
+        this.startMillis = source.currentTime(TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * the source minus jumpMillis for each everyMillis passed, so it goes back by jumpMillis at each step
+     */
+    @Override
+    public long currentTime(TimeUnit unit) {
+        long time = source.currentTime(unit);
+        long steps = (source.currentTime(TimeUnit.MILLISECONDS) - startMillis) / everyMillis;
+        return time - unit.convert(steps * jumpMillis, TimeUnit.MILLISECONDS);
+    }
+}
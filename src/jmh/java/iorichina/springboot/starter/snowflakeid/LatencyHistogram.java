@@ -0,0 +1,71 @@
+package iorichina.springboot.starter.snowflakeid;
+
+/**
+ * log-linear histogram of nanoseconds owned by one thread, exact below 64ns and within 1/32 above it
+ */
+final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int LINEAR = 1 << (SUB_BITS + 1);
+
+    private final long[] counts = new long[(64 - SUB_BITS) << SUB_BITS];
+    private long count;
+    private long max;
+
+    void record(long nanos) {
+        counts[indexOf(Math.max(0, nanos))]++;
+        count++;
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * upper bound of the bucket of the percentile
+     *
+     * @param percentile such as 99.9
+     */
+    long percentile(double percentile) {
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(max, upperOf(i));
+            }
+        }
+        return max;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    private static int indexOf(long nanos) {
+        if (nanos < LINEAR) {
+            return (int) nanos;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS;
+        return (shift << SUB_BITS) + (int) (nanos >>> shift);
+    }
+
+    private static long upperOf(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int shift = (index >>> SUB_BITS) - 1;
+        long sub = index - ((long) shift << SUB_BITS);
+        return ((sub + 1) << shift) - 1;
+    }
+}
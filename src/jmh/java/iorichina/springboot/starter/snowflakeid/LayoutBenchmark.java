@@ -0,0 +1,73 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * encoding and decoding of 1024 IDs by the hidden class of IdLayout against the field-based codec,
+ * scores are per ID
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutBenchmark {
+    @Param({"SPECIALIZED", "FIELD"})
+    String codecType;
+
+    IdLayoutCodec codec;
+    long[] ticks;
+    long[] ids;
+    long[] out;
+
+    @Setup
+    public void setup() {
+        IdLayout layout = new IdLayout(40, 3, 8, 12);
+        long tenantId = 5;
+        long nodeId = 200;
+        codec = "FIELD".equals(codecType)
+                ? new FieldIdLayoutCodec(layout.data(), (tenantId << layout.getLeftOfTenant()) | (nodeId << layout.getLeftOfNode()))
+                : layout.codec(tenantId, nodeId);
+        ticks = new long[1024];
+        ids = new long[1024];
+        out = new long[1024];
+        // ticks about a year after startTime
+        long base = TimeUnit.DAYS.toMillis(365);
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = base + i * 997L;
+            ids[i] = codec.encode(ticks[i], i & 4095);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public long[] encode() {
+        for (int i = 0; i < ticks.length; i++) {
+            out[i] = codec.encode(ticks[i], i & 4095);
+        }
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public long[] decode() {
+        for (int i = 0; i < ids.length; i++) {
+            out[i] = codec.tickOf(ids[i]) + codec.tenantOf(ids[i]) + codec.nodeOf(ids[i]) + codec.sequenceOf(ids[i]);
+        }
+        return out;
+    }
+}
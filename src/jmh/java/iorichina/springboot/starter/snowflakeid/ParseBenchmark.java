@@ -0,0 +1,80 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * parseTimeInMillis(long) and parseTime(long) over 1024 generated IDs,
+ * and bulk decoding of SnowFlakeIdDecoder, scores of bulk decoding are per ID
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    @Param({"MILLISECONDS", "SECONDS"})
+    String layout;
+
+    SnowFlakeIdHelper helper;
+    long[] ids;
+    int i;
+    SnowFlakeIdDecoder decoder;
+    long[] times;
+    long[] tenants;
+    long[] nodes;
+    long[] sequences;
+
+    @Setup
+    public void setup() {
+        helper = BenchmarkHelpers.create("PACKED", layout);
+        ids = new long[1024];
+        long base = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+        for (int j = 0; j < ids.length; j++) {
+            ids[j] = helper.genId(base + j * 997L);
+        }
+        decoder = new SnowFlakeIdDecoder(helper);
+        times = new long[ids.length];
+        tenants = new long[ids.length];
+        nodes = new long[ids.length];
+        sequences = new long[ids.length];
+    }
+
+    @Benchmark
+    public long parseTimeInMillis() {
+        return helper.parseTimeInMillis(ids[i++ & 1023]);
+    }
+
+    @Benchmark
+    public LocalDateTime parseTime() {
+        return helper.parseTime(ids[i++ & 1023]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public long[] decode() {
+        decoder.decode(ids, 0, times, tenants, nodes, sequences, 0, ids.length);
+        return times;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public long[] decodeScalar() {
+        decoder.decodeScalar(ids, 0, times, tenants, nodes, sequences, 0, ids.length);
+        return times;
+    }
+}
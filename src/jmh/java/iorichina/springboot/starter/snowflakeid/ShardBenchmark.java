@@ -0,0 +1,75 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * genIdForShard(int) of 4 threads on their own shard, and routing 1024 IDs by shardOf(long) against a hash and a routing table,
+ * layout of 41 bits of time + 10 bits of node(4 bits of shard) + 12 bits of autoincrement
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ShardBenchmark {
+    SnowFlakeIdHelper helper;
+    final AtomicInteger shards = new AtomicInteger();
+    long[] ids;
+    final Map<Integer, Integer> routes = new HashMap<>();
+
+    @State(Scope.Thread)
+    public static class Shard {
+        int shard;
+        int i;
+
+        @Setup
+        public void setup(ShardBenchmark benchmark) {
+            shard = 1 + benchmark.shards.getAndIncrement() % 15;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        helper = new SnowFlakeIdHelper(BenchmarkHelpers.START_TIME, TimeUnit.MILLISECONDS, 0, 0, 41, 0, 10, 12);
+        helper.setBitsOfShard(4);
+        ids = new long[1024];
+        for (int j = 0; j < ids.length; j++) {
+            ids[j] = helper.genIdForShard(j & 15);
+        }
+        for (int j = 0; j < 64; j++) {
+            routes.put(j, j & 15);
+        }
+    }
+
+    @Benchmark
+    public long genIdForShard(Shard shard) {
+        return helper.genIdForShard(shard.shard);
+    }
+
+    @Benchmark
+    public int shardOf(Shard shard) {
+        return helper.shardOf(ids[shard.i++ & 1023]);
+    }
+
+    @Benchmark
+    public int hashAndRoute(Shard shard) {
+        return routes.get(Long.hashCode(ids[shard.i++ & 1023] * 0x9E3779B97F4A7C15L) & 63);
+    }
+}
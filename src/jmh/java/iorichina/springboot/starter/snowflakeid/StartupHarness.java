@@ -0,0 +1,90 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * startup-to-first-ID: launch a fresh process N times, each one prints millis from process start to its first ID, and the median is reported
+ * <p>
+ * ./gradlew startup -PstartupArgs="-mode SPRING -runs 20"
+ * <p>
+ * options: -mode HELPER|SPRING(a helper by constructor, or by SnowFlakeIdAutoConfig in an application context), -runs,
+ * -command(the process to launch, default the current java with this class, such as a native image built of this class
+ * or an AOT processed application run with -Dspring.aot.enabled=true, which prints its first ID time the same way)
+ */
+public final class StartupHarness {
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^-+", ""), args[i + 1]);
+        }
+        String mode = options.getOrDefault("mode", "SPRING");
+        if (options.containsKey("child")) {
+            firstId(mode);
+            return;
+        }
+        List<String> command = new ArrayList<>();
+        if (options.containsKey("command")) {
+            command.addAll(Arrays.asList(options.get("command").split(" ")));
+        } else {
+            command.add(ProcessHandle.current().info().command().orElse("java"));
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(StartupHarness.class.getName());
+        }
+        command.addAll(List.of("-mode", mode, "-child", "true"));
+
+        int runs = Integer.parseInt(options.getOrDefault("runs", "10"));
+        long[] sinceStart = new long[runs];
+        long[] inMain = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            String line;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                line = reader.readLine();
+            }
+            if (0 != process.waitFor() || null == line) {
+                throw new IllegalStateException("run " + i + " failed: " + String.join(" ", command));
+            }
+            String[] times = line.trim().split(" ");
+            sinceStart[i] = Long.parseLong(times[0]);
+            inMain[i] = Long.parseLong(times[1]);
+        }
+        Arrays.sort(sinceStart);
+        Arrays.sort(inMain);
+        System.out.printf("mode %s, %d runs of %s%n", mode, runs, new File(command.get(0)).getName());
+        System.out.printf("process start to first ID: median %d ms, min %d ms, max %d ms%n", sinceStart[runs / 2], sinceStart[0], sinceStart[runs - 1]);
+        System.out.printf("main to first ID: median %d ms, min %d ms, max %d ms%n", inMain[runs / 2], inMain[0], inMain[runs - 1]);
+    }
+
+    /**
+     * print millis from process start and from main to the first ID
+     */
+    private static void firstId(String mode) {
+        long main = System.nanoTime();
+        long id;
+        if ("HELPER".equals(mode)) {
+            id = new SnowFlakeIdHelper(StressHarness.START_TIME, TimeUnit.MILLISECONDS, 0, 0, 41, 0, 10, 12).genId();
+        } else {
+            try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(SnowFlakeIdAutoConfig.class)) {
+                id = context.getBean(SnowFlakeIdHelper.class).genId();
+            }
+        }
+        long now = System.currentTimeMillis();
+        long inMain = (System.nanoTime() - main) / 1_000_000;
+        long started = ProcessHandle.current().info().startInstant().map(instant -> instant.toEpochMilli()).orElse(now);
+        if (id <= 0) {
+            throw new IllegalStateException("no ID");
+        }
+        System.out.println((now - started) + " " + inMain);
+    }
+}
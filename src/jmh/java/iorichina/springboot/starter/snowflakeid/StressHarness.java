@@ -0,0 +1,210 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * drive one generator mode with N threads for M seconds, every ID is checked while generating:
+ * uniqueness by an off-heap {@link IdBitmap}, per-thread monotonicity, latency by {@link LatencyHistogram}
+ * <p>
+ * ./gradlew stress -PstressArgs="-strategy STRIPED -threads 8 -seconds 60"
+ * <p>
+ * options(defaults of SnowFlakeIdProperties):
+ * -strategy PACKED|STRIPED|CACHE|RECYCLABLE|RING, -threads, -seconds, -timeUnit, -bitsOfAutoincrement,
+ * -stripes, -overflowPolicy, -maxBorrowTicks, -clockRegressionPolicy, -maxClockRegressionWaitMillis,
+ * -timeSource SYSTEM|MONOTONIC|TICKER, -clockJumpMillis, -clockJumpEveryMillis, -ringBufferSize
+ * <p>
+ * exits with 1 if any ID is duplicated or out of order for one thread, STRIPED only keeps ticks in order,
+ * RING and RECYCLABLE are not checked for order
+ */
+public final class StressHarness {
+    static final LocalDateTime START_TIME = LocalDateTime.of(2025, 7, 19, 0, 0);
+
+    private final Map<String, String> options;
+    private volatile boolean stopped;
+
+    private StressHarness(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^-+", ""), args[i + 1]);
+        }
+        System.exit(new StressHarness(options).run() ? 0 : 1);
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private long option(String name, long defaultValue) {
+        return Long.parseLong(option(name, String.valueOf(defaultValue)));
+    }
+
+    @SuppressWarnings("deprecation")
+    boolean run() throws Exception {
+        String strategy = option("strategy", "PACKED");
+        int threads = (int) option("threads", Runtime.getRuntime().availableProcessors());
+        long seconds = option("seconds", 10);
+        TimeUnit unit = TimeUnit.valueOf(option("timeUnit", "MILLISECONDS"));
+        long bitsOfAutoincrement = option("bitsOfAutoincrement", 12);
+        long bitsOfTime = TimeUnit.SECONDS == unit ? 31 : 41;
+        bitsOfTime = Math.min(bitsOfTime, 63 - bitsOfAutoincrement);
+        int stripes = (int) option("stripes", 0);
+        long clockJumpMillis = option("clockJumpMillis", 0);
+
+        SnowFlakeIdHelper helper = switch (strategy) {
+            case "CACHE" -> new SnowFlakeIdHelper(START_TIME, unit, 0, 0, bitsOfTime, 0, 0, bitsOfAutoincrement, 1024, false);
+            case "RECYCLABLE" -> new SnowFlakeIdHelper(START_TIME, unit, 0, 0, bitsOfTime, 0, 0, bitsOfAutoincrement, 1000);
+            case "STRIPED" -> new SnowFlakeIdHelper(START_TIME, unit, 0, 0, bitsOfTime, 0, 0, bitsOfAutoincrement, stripes, 1024);
+            default -> new SnowFlakeIdHelper(START_TIME, unit, 0, 0, bitsOfTime, 0, 0, bitsOfAutoincrement);
+        };
+        TimeSource timeSource = switch (option("timeSource", "SYSTEM")) {
+            case "MONOTONIC" -> new MonotonicTimeSource();
+            case "TICKER" -> new TickerTimeSource(TimeSource.SYSTEM, 1000);
+            default -> TimeSource.SYSTEM;
+        };
+        if (clockJumpMillis > 0) {
+            timeSource = new JumpingTimeSource(timeSource, clockJumpMillis, option("clockJumpEveryMillis", 1000));
+        }
+        helper.setTimeSource(timeSource);
+        helper.setOverflowPolicy(SequenceOverflowPolicy.valueOf(option("overflowPolicy", "PARK")));
+        helper.setMaxBorrowTicks(option("maxBorrowTicks", 10));
+        helper.setClockRegressionPolicy(ClockRegressionPolicy.valueOf(option("clockRegressionPolicy", "LAST_TICK")));
+        helper.setMaxClockRegressionWaitMillis(option("maxClockRegressionWaitMillis", 10));
+        // borrowing runs ahead of the clock, one extra second and the borrowed ticks are enough for the window
+        long first = helper.genId();
+        long ticks = unit.convert(seconds + 1, TimeUnit.SECONDS) + Math.max(0, helper.getMaxBorrowTicks()) + 1;
+        IdBitmap bitmap = new IdBitmap(helper, first >>> helper.getLeftOfTime(), ticks);
+        bitmap.mark(first);
+        SnowFlakeIdRingBuffer ring = "RING".equals(strategy)
+                ? new SnowFlakeIdRingBuffer(helper, (int) option("ringBufferSize", 1 << 16), 50, 0, true) : null;
+        LongSupplier generator = null == ring ? helper::genId : ring::genId;
+        Order order = switch (strategy) {
+            case "STRIPED" -> Order.TICK;
+            // IDs generated when the ring is empty are newer than the ones left in it, RECYCLABLE wraps in one tick
+            case "RING", "RECYCLABLE" -> Order.NONE;
+            default -> Order.ID;
+        };
+
+        System.out.printf("strategy=%s threads=%d seconds=%d timeUnit=%s bitsOfAutoincrement=%d options=%s bitmap=%.1fMB%n",
+                strategy, threads, seconds, unit, bitsOfAutoincrement, options, bitmap.getBytes() / 1048576.0);
+        List<Worker> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(generator, bitmap, order);
+            workers.add(worker);
+        }
+        long start = System.nanoTime();
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        stopped = true;
+        Worker total = new Worker(generator, bitmap, order);
+        for (Worker worker : workers) {
+            worker.thread.join();
+            total.add(worker);
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        if (null != ring) {
+            ring.close();
+        }
+        if (timeSource instanceof TickerTimeSource ticker) {
+            ticker.close();
+        }
+
+        LatencyHistogram latency = total.latency;
+        System.out.printf("ids=%d throughput=%.0f ids/s%n", latency.getCount(), latency.getCount() / elapsed);
+        System.out.printf("latency ns: p50=%d p90=%d p99=%d p99.9=%d p99.99=%d max=%d%n",
+                latency.percentile(50), latency.percentile(90), latency.percentile(99),
+                latency.percentile(99.9), latency.percentile(99.99), latency.getMax());
+        SnowFlakeIdStats stats = helper.getStats();
+        System.out.printf("exhausted=%d spins=%d parks=%d borrows=%d failures=%d clockRegressions=%d%n",
+                stats.getExhausted(), stats.getSpins(), stats.getParks(), stats.getBorrows(), stats.getFailures(), stats.getClockRegressions());
+        System.out.printf("duplicates=%d outOfOrder=%d outOfWindow=%d sequenceExhausted=%d clockMovedBackwards=%d%n",
+                total.duplicates, total.outOfOrder, total.outOfWindow, total.sequenceExhausted, total.clockMovedBackwards);
+        boolean passed = 0 == total.duplicates && 0 == total.outOfOrder;
+        System.out.println(passed ? "PASSED" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * order of IDs of one thread
+     */
+    private enum Order {
+        ID, TICK, NONE
+    }
+
+    /**
+     * one generating thread, counters are only read after join
+     */
+    private final class Worker implements Runnable {
+        final Thread thread = new Thread(this);
+        final LongSupplier generator;
+        final IdBitmap bitmap;
+        final Order order;
+        final LatencyHistogram latency = new LatencyHistogram();
+        long duplicates;
+        long outOfOrder;
+        long outOfWindow;
+        long sequenceExhausted;
+        long clockMovedBackwards;
+
+        Worker(LongSupplier generator, IdBitmap bitmap, Order order) {
+            this.generator = generator;
+            this.bitmap = bitmap;
+            this.order = order;
+        }
+
+        @Override
+        public void run() {
+            long last = -1;
+            while (!stopped) {
+                for (int i = 0; i < 1024; i++) {
+                    long id;
+                    long begin = System.nanoTime();
+                    try {
+                        id = generator.getAsLong();
+                    } catch (SequenceExhaustedException e) {
+                        sequenceExhausted++;
+                        continue;
+                    } catch (ClockMovedBackwardsException e) {
+                        clockMovedBackwards++;
+                        continue;
+                    }
+                    latency.record(System.nanoTime() - begin);
+                    if (switch (order) {
+                        case ID -> id <= last;
+                        case TICK -> last >= 0 && bitmap.tickOf(id) < bitmap.tickOf(last);
+                        case NONE -> false;
+                    }) {
+                        outOfOrder++;
+                    }
+                    last = id;
+                    switch (bitmap.mark(id)) {
+                        case 0 -> duplicates++;
+                        case -1 -> outOfWindow++;
+                        default -> {
+                        }
+                    }
+                }
+            }
+        }
+
+        void add(Worker other) {
+            latency.add(other.latency);
+            duplicates += other.duplicates;
+            outOfOrder += other.outOfOrder;
+            outOfWindow += other.outOfWindow;
+            sequenceExhausted += other.sequenceExhausted;
+            clockMovedBackwards += other.clockMovedBackwards;
+        }
+    }
+}
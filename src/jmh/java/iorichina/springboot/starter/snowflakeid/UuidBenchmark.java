@@ -0,0 +1,69 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UUIDv7 of UuidV7SnowFlakeIdHelper as UUID, into long[] and in batch, UUID.randomUUID() as baseline
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidBenchmark {
+    static final int BATCH = 64;
+
+    UuidV7SnowFlakeIdHelper helper;
+
+    @State(Scope.Thread)
+    public static class Buffer {
+        long[] bits = new long[BATCH * 2];
+    }
+
+    @Setup
+    public void setup() {
+        helper = new UuidV7SnowFlakeIdHelper(BenchmarkHelpers.create("PACKED", "MILLISECONDS"));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID randomUUID() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID genUuid() {
+        return helper.genUuid();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long[] genUuidInto(Buffer buffer) {
+        helper.genUuid(buffer.bits, 0);
+        return buffer.bits;
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(BATCH)
+    public long[] fill(Buffer buffer) {
+        helper.fill(buffer.bits, 0, BATCH);
+        return buffer.bits;
+    }
+}
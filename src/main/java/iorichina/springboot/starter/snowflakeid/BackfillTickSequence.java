@@ -0,0 +1,248 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * sequence of explicit ticks in a window of size ticks, the slot of a tick is tick &amp; (size - 1)
+ * and holds the packed word of {@link PackedAtomicLong}: (tick &lt;&lt; bitsOfSequence) | sequence
+ * <p>
+ * a newer tick evicts the older tick in its slot, so a slot only moves forward,
+ * and the evicted tick raises a monotonic low watermark: a tick older than the one in its slot is reported as used up
+ * and never issued from 0 again, the caller follows overflowPolicy as for any used up tick;
+ * at or below the watermark it may have been issued before its eviction, above it the slot is held by a newer tick
+ * <p>
+ * explicit times far ahead of the clock are issued here too by {@link #getAndAddAhead}, a tick not reached by the clock is never evicted;
+ * the packed word {@link #claim}s a tick before starting it, so it continues after the IDs issued here ahead of it
+ * <p>
+ * every call is one CAS and allocates nothing, memory is fixed at size longs and the watermark
+ */
+public class BackfillTickSequence implements TickSequence, PackedWords {
+    final long bitsOfSequence;
+    final long maxSequence;
+    /**
+     * ticks in the window, power of 2
+     */
+    @Getter
+    final int size;
+    private final int mask;
+    private final AtomicLongArray slots;
+    /**
+     * newest tick evicted from its slot, -1 if none
+     */
+    private final AtomicLong watermark = new AtomicLong(-1);
+    /**
+     * newest tick started by the packed word, ticks up to it are no longer issued ahead, -1 if none
+     */
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final LongAdder evictedHits = new LongAdder();
+
+    /**
+     * @param bitsOfSequence bits of sequence in the packed word
+     * @param size           ticks in the window, round up to power of 2
+     */
+    public BackfillTickSequence(long bitsOfSequence, int size) {
+        this.bitsOfSequence = bitsOfSequence;
+        this.maxSequence = -1L ^ (-1L << bitsOfSequence);
+        int pow2 = 1;
+        while (pow2 < size && pow2 < 1 << 30) {
+            pow2 <<= 1;
+        }
+        this.size = pow2;
+        this.mask = pow2 - 1;
+        this.slots = new AtomicLongArray(pow2);
+        reset();
+    }
+
+    /**
+     * start over with every slot before tick 0 as a new sequence
+     */
+    void reset() {
+        for (int i = 0; i < size; i++) {
+            slots.set(i, -1L);
+        }
+        watermark.set(-1);
+        claimed.set(-1);
+    }
+
+    @Override
+    public long getAndIncrementWithTick(long tick) {
+        return getAndAddWithTick(tick, 1);
+    }
+
+    /**
+     * @throws IllegalArgumentException tick is negative, time before startTime has no ID
+     */
+    @Override
+    public long getAndAddWithTick(long tick, long count) {
+        if (tick < 0) {
+            throw new IllegalArgumentException("time is before startTime: tick " + tick);
+        }
+        long first = PackedWords.getAndAdd(this, (int) tick & mask, bitsOfSequence, tick, count, 0, maxSequence, true);
+        if (STALE == first) {
+            if (tick <= watermark.get()) {
+                evictedHits.increment();
+            }
+            return ~tick;
+        }
+        return first;
+    }
+
+    /**
+     * the same as {@link #getAndAddWithTick(long, long)}, every tick is only issued on itself
+     */
+    @Override
+    public long getAndAddOnTick(long tick, long count) {
+        return getAndAddWithTick(tick, count);
+    }
+
+    /**
+     * reserve a range of sequence of tick ahead of the packed word, in one CAS,
+     * the slot is only taken from a tick the clock has reached, a tick after now keeps its slot until then
+     *
+     * @param now tick of the clock
+     * @return packed tick and first sequence of the range, ~tick if it is used up or its slot is held,
+     * or {@link #STALE} if the packed word has claimed tick, it is issued there then
+     */
+    long getAndAddAhead(long tick, long count, long now) {
+        int index = (int) tick & mask;
+        for (; ; ) {
+            if (tick <= claimed.get()) {
+                return STALE;
+            }
+            long current = slots.get(index);
+            long slotTick = current >> bitsOfSequence;
+            long first;
+            long next;
+            if (slotTick > tick || (slotTick < tick && slotTick > now)) {
+                return ~tick;
+            }
+            if (slotTick < tick) {
+                raiseWatermark(slotTick);
+                first = tick << bitsOfSequence;
+                next = first + Math.min(count, maxSequence + 1) - 1;
+            } else {
+                long sequence = current & maxSequence;
+                if (sequence >= maxSequence) {
+                    return ~tick;
+                }
+                first = current + 1;
+                next = current + Math.min(count, maxSequence - sequence);
+            }
+            if (slots.compareAndSet(index, current, next)) {
+                // the range is dropped if the packed word claimed tick meanwhile, it may have read the slot before the CAS
+                return tick <= claimed.get() ? STALE : first;
+            }
+        }
+    }
+
+    /**
+     * the packed word is about to start tick, no more IDs are issued on it ahead from now on
+     *
+     * @return first sequence of tick on the packed word: after the IDs issued here ahead of it,
+     * or beyond maxSequence if it may have been issued and evicted
+     */
+    long claim(long tick, long firstSequence) {
+        if (tick > claimed.get()) {
+            claimed.accumulateAndGet(tick, Math::max);
+        }
+        long current = slots.get((int) tick & mask);
+        long slotTick = current >> bitsOfSequence;
+        if (slotTick == tick) {
+            return Math.max(firstSequence, (current & maxSequence) + 1);
+        }
+        if (slotTick > tick && tick <= watermark.get()) {
+            return maxSequence + 1;
+        }
+        return firstSequence;
+    }
+
+    /**
+     * continue packed tick and sequence issued elsewhere, such as the last tick of packedSequence,
+     * the slot only moves forward so the tick is kept unless a newer tick is in its slot, it is evicted then
+     */
+    void retire(long packed) {
+        int index = (int) (packed >> bitsOfSequence) & mask;
+        for (; ; ) {
+            long current = slots.get(index);
+            if (current >= packed) {
+                if ((current >> bitsOfSequence) > (packed >> bitsOfSequence)) {
+                    raiseWatermark(packed >> bitsOfSequence);
+                }
+                return;
+            }
+            if ((current >> bitsOfSequence) < (packed >> bitsOfSequence)) {
+                raiseWatermark(current >> bitsOfSequence);
+            }
+            if (slots.compareAndSet(index, current, packed)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * the slot at index is about to start a newer tick, its tick is evicted
+     */
+    @Override
+    public final void retire(int index, long word) {
+        raiseWatermark(word >> bitsOfSequence);
+    }
+
+    private void raiseWatermark(long tick) {
+        if (tick > watermark.get()) {
+            watermark.accumulateAndGet(tick, Math::max);
+        }
+    }
+
+    /**
+     * newest tick evicted from its slot, -1 if none
+     */
+    long getWatermark() {
+        return watermark.get();
+    }
+
+    @Override
+    public final long word(int index) {
+        return slots.get(index);
+    }
+
+    @Override
+    public final boolean casWord(int index, long expect, long update) {
+        return slots.compareAndSet(index, expect, update);
+    }
+
+    @Override
+    public long rangeOf(long first, long count) {
+        return Math.min(count, maxSequence - (first & maxSequence) + 1);
+    }
+
+    @Override
+    public long tickOf(long packed) {
+        return packed >> bitsOfSequence;
+    }
+
+    @Override
+    public long sequenceOf(long packed) {
+        return packed & maxSequence;
+    }
+
+    @Override
+    public long remainingOf(long tick) {
+        long current = slots.get((int) tick & mask);
+        long slotTick = current >> bitsOfSequence;
+        if (tick > slotTick) {
+            return maxSequence + 1;
+        }
+        return tick == slotTick ? maxSequence - (current & maxSequence) : 0;
+    }
+
+    /**
+     * requests for ticks older than the one in their slot and at or below the watermark, evicted after they may have been issued
+     */
+    public long getEvictedHits() {
+        return evictedHits.sum();
+    }
+}
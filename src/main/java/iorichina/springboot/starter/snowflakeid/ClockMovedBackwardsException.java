@@ -0,0 +1,10 @@
+package iorichina.springboot.starter.snowflakeid;
+
+/**
+ * thrown when the clock goes backwards and the clock regression policy rejects it
+ */
+public class ClockMovedBackwardsException extends IllegalStateException {
+    public ClockMovedBackwardsException(String message) {
+        super(message);
+    }
+}
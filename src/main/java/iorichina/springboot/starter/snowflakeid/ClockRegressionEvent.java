@@ -0,0 +1,29 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of the clock going backwards, the duration is the time handling it, such as waiting with policy WAIT,
+ * disabled by default
+ */
+@Name("iorichina.snowflakeid.ClockRegression")
+@Label("Clock Regression")
+@Category("SnowFlakeId")
+@Description("the clock of current-time IDs went backwards")
+@Enabled(false)
+final class ClockRegressionEvent extends jdk.jfr.Event {
+    @Label("Clock Regression Policy")
+    String policy;
+    @Label("Unit")
+    String unit;
+    @Label("Regression")
+    @Description("ticks in unit the clock went backwards")
+    long regression;
+    @Label("Outcome")
+    @Description("LAST_TICK, WAITED or REJECTED")
+    String outcome;
+}
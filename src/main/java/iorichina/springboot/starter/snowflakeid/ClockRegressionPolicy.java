@@ -0,0 +1,20 @@
+package iorichina.springboot.starter.snowflakeid;
+
+/**
+ * what to do when the clock goes backwards behind the highest time already read for current-time IDs
+ */
+public enum ClockRegressionPolicy {
+    /**
+     * keep issuing on the last time with its spare sequence
+     */
+    LAST_TICK,
+    /**
+     * wait for the clock to catch up if the regression is no more than maxClockRegressionWaitMillis,
+     * throw {@link ClockMovedBackwardsException} if it is more
+     */
+    WAIT,
+    /**
+     * throw {@link ClockMovedBackwardsException}
+     */
+    REJECT,
+}
@@ -0,0 +1,53 @@
+package iorichina.springboot.starter.snowflakeid;
+
+/**
+ * {@link IdLayoutCodec} reading shifts and masks from fields, where hidden classes can't be defined
+ */
+final class FieldIdLayoutCodec implements IdLayoutCodec {
+    private final int leftOfTime;
+    private final int leftOfTenant;
+    private final int leftOfNode;
+    private final long maxTenantNum;
+    private final long maxNodeNum;
+    private final long maxAutoincrementNum;
+    private final long prefix;
+
+    /**
+     * @param data   leftOfTime, leftOfTenant, leftOfNode, maxTenantNum, maxNodeNum, maxAutoincrementNum
+     * @param prefix tenantId and nodeId in place
+     */
+    FieldIdLayoutCodec(long[] data, long prefix) {
+        this.leftOfTime = (int) data[0];
+        this.leftOfTenant = (int) data[1];
+        this.leftOfNode = (int) data[2];
+        this.maxTenantNum = data[3];
+        this.maxNodeNum = data[4];
+        this.maxAutoincrementNum = data[5];
+        this.prefix = prefix;
+    }
+
+    @Override
+    public long encode(long tick, long sequence) {
+        return (tick << leftOfTime) | prefix | sequence;
+    }
+
+    @Override
+    public long tickOf(long id) {
+        return id >>> leftOfTime;
+    }
+
+    @Override
+    public long tenantOf(long id) {
+        return (id >>> leftOfTenant) & maxTenantNum;
+    }
+
+    @Override
+    public long nodeOf(long id) {
+        return (id >>> leftOfNode) & maxNodeNum;
+    }
+
+    @Override
+    public long sequenceOf(long id) {
+        return id & maxAutoincrementNum;
+    }
+}
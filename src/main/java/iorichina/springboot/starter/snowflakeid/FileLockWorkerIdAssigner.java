@@ -0,0 +1,115 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * lease node id from a local registry of one lock file per id: `node-{id}.lock` under directory,
+ * the lease is a file lock held until {@link #close()} or the process exits,
+ * so processes on one host never share a node id
+ * <p>
+ * the leased id is cached in `{key}.node` and tried first on restart, otherwise searching starts from the hint;
+ * helpers sharing one assigner share the id leased for the key, it is leased again only if it is beyond maxNodeNum
+ * <p>
+ * once closed, such as before a checkpoint of CRaC, the cache is no longer tried: copies restored from one checkpoint on other hosts
+ * would all lease the id cached in its file system, leasing searches from the hint instead
+ */
+public class FileLockWorkerIdAssigner implements WorkerIdAssigner, AutoCloseable {
+    private final Path directory;
+    private final String key;
+    private final WorkerIdAssigner hint;
+    private final List<FileChannel> leases = new ArrayList<>();
+    /**
+     * id leased for the key, -1 if none
+     */
+    private long leased = -1;
+    /**
+     * leases were released by {@link #close()}, `{key}.node` is skipped
+     */
+    private boolean released;
+
+    /**
+     * @param directory registry of lock files, shared by processes on one host
+     * @param key       name of the cache file of leased id
+     * @param hint      where to start searching without a cached id, such as {@link WorkerIdAssigner#IP}
+     */
+    public FileLockWorkerIdAssigner(Path directory, String key, WorkerIdAssigner hint) {
+        this.directory = directory;
+        this.key = key;
+        this.hint = hint;
+    }
+
+    @Override
+    public synchronized long assign(long maxNodeNum) {
+        if (leased >= 0 && leased <= maxNodeNum) {
+            return leased;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path cache = directory.resolve(key + ".node");
+            long first = released ? -1 : readCache(cache, maxNodeNum);
+            if (first < 0) {
+                first = hint.assign(maxNodeNum);
+            }
+            for (long i = 0; i <= maxNodeNum; i++) {
+                long nodeId = (first + i) & maxNodeNum;
+                if (tryLease(nodeId)) {
+                    Files.writeString(cache, Long.toString(nodeId), StandardCharsets.UTF_8);
+                    leased = nodeId;
+                    return nodeId;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("fail to lease node id in " + directory, e);
+        }
+        throw new IllegalStateException("no free node id in " + directory + " with max node id " + maxNodeNum);
+    }
+
+    private long readCache(Path cache, long maxNodeNum) {
+        try {
+            long nodeId = Long.parseLong(Files.readString(cache, StandardCharsets.UTF_8).trim());
+            return nodeId >= 0 && nodeId <= maxNodeNum ? nodeId : -1;
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private boolean tryLease(long nodeId) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve("node-" + nodeId + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            //leased by this process
+            lock = null;
+        }
+        if (null == lock) {
+            channel.close();
+            return false;
+        }
+        leases.add(channel);
+        return true;
+    }
+
+    /**
+     * release all leased node ids
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (FileChannel channel : leases) {
+            channel.close();
+        }
+        leases.clear();
+        leased = -1;
+        released = true;
+    }
+}
@@ -0,0 +1,221 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * fixed width text encoding of IDs, digits are in ascending ASCII order and padded with leading '0',
+ * so encoded strings sort the same as the IDs
+ * <p>
+ * methods writing into byte[], char[] and ByteBuffer allocate nothing, methods of String are for convenience
+ */
+public final class IdCodec {
+    /**
+     * Crockford Base32 in 13 chars, decoding is case insensitive and reads I L as 1, O as 0
+     */
+    public static final IdCodec BASE32 = new IdCodec("0123456789ABCDEFGHJKMNPQRSTVWXYZ", true);
+    /**
+     * Base62 in 11 chars, 0-9 A-Z a-z
+     */
+    public static final IdCodec BASE62 = new IdCodec("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz", false);
+
+    /**
+     * the only radix not power of 2, a constant divisor is compiled to multiplication
+     */
+    private static final int RADIX_62 = 62;
+
+    private final byte[] digits;
+    /**
+     * ASCII to digit, -1 for invalid char
+     */
+    private final byte[] values = new byte[128];
+    private final int radix;
+    /**
+     * bits of one digit if radix is power of 2, or 0 for radix 62
+     */
+    private final int shift;
+    /**
+     * chars of one encoded ID
+     */
+    @Getter
+    private final int length;
+    /**
+     * max value of the leading digit of 63 bits
+     */
+    private final long maxLeadingDigit;
+
+    private IdCodec(String alphabet, boolean crockford) {
+        this.digits = alphabet.getBytes(StandardCharsets.US_ASCII);
+        this.radix = digits.length;
+        this.shift = Integer.bitCount(radix) == 1 ? Integer.numberOfTrailingZeros(radix) : 0;
+        int length = 0;
+        for (long max = Long.MAX_VALUE; max > 0; max /= radix) {
+            length++;
+        }
+        this.length = length;
+        long leading = Long.MAX_VALUE;
+        for (int i = 1; i < length; i++) {
+            leading /= radix;
+        }
+        this.maxLeadingDigit = leading;
+        Arrays.fill(values, (byte) -1);
+        for (int i = 0; i < radix; i++) {
+            values[digits[i]] = (byte) i;
+            if (crockford) {
+                values[Character.toLowerCase(digits[i])] = (byte) i;
+            }
+        }
+        if (crockford) {
+            values['I'] = values['i'] = values['L'] = values['l'] = 1;
+            values['O'] = values['o'] = 0;
+        }
+    }
+
+    /**
+     * encode id into dst[off, off + length)
+     *
+     * @return off + length
+     */
+    public int encode(long id, byte[] dst, int off) {
+        checkId(id);
+        Objects.checkFromIndexSize(off, length, dst.length);
+        for (int i = off + length - 1; i >= off; i--) {
+            dst[i] = digits[digitOf(id)];
+            id = next(id);
+        }
+        return off + length;
+    }
+
+    /**
+     * encode id into dst[off, off + length)
+     *
+     * @return off + length
+     */
+    public int encode(long id, char[] dst, int off) {
+        checkId(id);
+        Objects.checkFromIndexSize(off, length, dst.length);
+        for (int i = off + length - 1; i >= off; i--) {
+            dst[i] = (char) digits[digitOf(id)];
+            id = next(id);
+        }
+        return off + length;
+    }
+
+    /**
+     * encode id at position of dst and move position forward by length
+     */
+    public void encode(long id, ByteBuffer dst) {
+        checkId(id);
+        int off = dst.position();
+        Objects.checkFromIndexSize(off, length, dst.limit());
+        for (int i = off + length - 1; i >= off; i--) {
+            dst.put(i, digits[digitOf(id)]);
+            id = next(id);
+        }
+        dst.position(off + length);
+    }
+
+    /**
+     * encode id into a new String
+     */
+    public String encode(long id) {
+        byte[] dst = new byte[length];
+        encode(id, dst, 0);
+        return new String(dst, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * decode ID from src[off, off + length)
+     */
+    public long decode(byte[] src, int off) {
+        Objects.checkFromIndexSize(off, length, src.length);
+        long id = leading(valueOf(src[off]));
+        for (int i = off + 1, end = off + length; i < end; i++) {
+            id = id * radix + valueOf(src[i]);
+        }
+        return checkDecoded(id);
+    }
+
+    /**
+     * decode ID from src[off, off + length)
+     */
+    public long decode(char[] src, int off) {
+        Objects.checkFromIndexSize(off, length, src.length);
+        long id = leading(valueOf(src[off]));
+        for (int i = off + 1, end = off + length; i < end; i++) {
+            id = id * radix + valueOf(src[i]);
+        }
+        return checkDecoded(id);
+    }
+
+    /**
+     * decode ID at position of src and move position forward by length
+     */
+    public long decode(ByteBuffer src) {
+        int off = src.position();
+        Objects.checkFromIndexSize(off, length, src.limit());
+        long id = leading(valueOf(src.get(off)));
+        for (int i = off + 1, end = off + length; i < end; i++) {
+            id = id * radix + valueOf(src.get(i));
+        }
+        src.position(off + length);
+        return checkDecoded(id);
+    }
+
+    /**
+     * decode ID from text of exactly length chars
+     */
+    public long decode(CharSequence text) {
+        if (text.length() != length) {
+            throw new IllegalArgumentException("length of encoded ID must be " + length + ": " + text);
+        }
+        long id = leading(valueOf(text.charAt(0)));
+        for (int i = 1; i < length; i++) {
+            id = id * radix + valueOf(text.charAt(i));
+        }
+        return checkDecoded(id);
+    }
+
+    private int digitOf(long id) {
+        return 0 == shift ? (int) (id % RADIX_62) : (int) id & (radix - 1);
+    }
+
+    private long next(long id) {
+        return 0 == shift ? id / RADIX_62 : id >>> shift;
+    }
+
+    private int valueOf(int c) {
+        int value = c < 128 && c >= 0 ? values[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("invalid char of encoded ID: " + (char) c);
+        }
+        return value;
+    }
+
+    private long leading(int value) {
+        if (value > maxLeadingDigit) {
+            throw new IllegalArgumentException("encoded ID exceeds 63 bits");
+        }
+        return value;
+    }
+
+    private static void checkId(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("ID must not be negative: " + id);
+        }
+    }
+
+    /**
+     * the leading digit is checked, the rest may still exceed 63 bits but stay in 64 bits, so an overflow is negative
+     */
+    private static long checkDecoded(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("encoded ID exceeds 63 bits");
+        }
+        return id;
+    }
+}
@@ -0,0 +1,123 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * immutable bit layout of ID, from high bits to low bits:
+ * sign bit(always 0) + time + tenant + node + autoincrement
+ * <p>
+ * bits sum to at most 63, so IDs never overflow into the sign bit, bits under 63 leave the high bits of time 0
+ */
+@Getter
+@EqualsAndHashCode(of = {"bitsOfTime", "bitsOfTenant", "bitsOfNode", "bitsOfAutoincrement"})
+@ToString(of = {"bitsOfTime", "bitsOfTenant", "bitsOfNode", "bitsOfAutoincrement"})
+public final class IdLayout {
+    /**
+     * constructor of the hidden class of each layout, defined once and shared by every codec of the layout
+     */
+    private static final Map<IdLayout, MethodHandle> SPECIALIZED = new ConcurrentHashMap<>();
+
+    private final long bitsOfTime;
+    private final long bitsOfTenant;
+    private final long bitsOfNode;
+    private final long bitsOfAutoincrement;
+
+    private final long maxTimeNum;
+    private final long maxTenantNum;
+    private final long maxNodeNum;
+    private final long maxAutoincrementNum;
+
+    private final long leftOfNode;
+    private final long leftOfTenant;
+    private final long leftOfTime;
+
+    /**
+     * @throws IllegalArgumentException bits of time is not positive, bits of others are negative, or bits sum over 63
+     */
+    public IdLayout(long bitsOfTime, long bitsOfTenant, long bitsOfNode, long bitsOfAutoincrement) {
+        if (bitsOfTime <= 0 || bitsOfTenant < 0 || bitsOfNode < 0 || bitsOfAutoincrement < 0
+                || bitsOfTime + bitsOfTenant + bitsOfNode + bitsOfAutoincrement > 63) {
+            throw new IllegalArgumentException("bits of time(" + bitsOfTime + ")+tenant(" + bitsOfTenant + ")+node(" + bitsOfNode
+                    + ")+autoincrement(" + bitsOfAutoincrement + ") must be at most 63 with positive time");
+        }
+        this.bitsOfTime = bitsOfTime;
+        this.bitsOfTenant = bitsOfTenant;
+        this.bitsOfNode = bitsOfNode;
+        this.bitsOfAutoincrement = bitsOfAutoincrement;
+
+        this.maxTimeNum = -1L ^ (-1L << bitsOfTime);
+        this.maxTenantNum = -1L ^ (-1L << bitsOfTenant);
+        this.maxNodeNum = -1L ^ (-1L << bitsOfNode);
+        this.maxAutoincrementNum = -1L ^ (-1L << bitsOfAutoincrement);
+
+        this.leftOfNode = bitsOfAutoincrement;
+        this.leftOfTenant = this.leftOfNode + bitsOfNode;
+        this.leftOfTime = this.leftOfTenant + bitsOfTenant;
+    }
+
+    /**
+     * codec of this layout with tenantId and nodeId as a final prefix, an instance of the hidden class of this layout
+     * whose shifts and masks are constants to the JIT, so helpers, restores and shards of one layout share one class
+     * and the call sites encoding IDs stay monomorphic;
+     * or reading them from fields where hidden classes can't be defined(such as native image)
+     */
+    IdLayoutCodec codec(long tenantId, long nodeId) {
+        long prefix = ((tenantId & maxTenantNum) << leftOfTenant) | ((nodeId & maxNodeNum) << leftOfNode);
+        if (null == Template.BYTES) {
+            return new FieldIdLayoutCodec(data(), prefix);
+        }
+        try {
+            return (IdLayoutCodec) SPECIALIZED.computeIfAbsent(this, IdLayout::specialize).invoke(prefix);
+        } catch (Throwable e) {
+            return new FieldIdLayoutCodec(data(), prefix);
+        }
+    }
+
+    /**
+     * leftOfTime, leftOfTenant, leftOfNode, maxTenantNum, maxNodeNum, maxAutoincrementNum
+     */
+    long[] data() {
+        return new long[]{leftOfTime, leftOfTenant, leftOfNode, maxTenantNum, maxNodeNum, maxAutoincrementNum};
+    }
+
+    /**
+     * @throws IllegalStateException the hidden class can't be defined
+     */
+    private static MethodHandle specialize(IdLayout layout) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClassWithClassData(Template.BYTES, layout.data(), true);
+            return lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("hidden class of " + layout + " can't be defined", e);
+        }
+    }
+
+    /**
+     * class file of {@link SpecializedIdLayoutCodec}, read once on first use
+     */
+    private static final class Template {
+        static final byte[] BYTES = read();
+
+        private static byte[] read() {
+            //a native image can't define classes at runtime
+            if (null != System.getProperty("org.graalvm.nativeimage.imagecode")) {
+                return null;
+            }
+            try (InputStream in = IdLayout.class.getResourceAsStream(SpecializedIdLayoutCodec.class.getSimpleName() + ".class")) {
+                return null == in ? null : in.readAllBytes();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
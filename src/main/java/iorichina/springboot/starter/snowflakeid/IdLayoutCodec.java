@@ -0,0 +1,22 @@
+package iorichina.springboot.starter.snowflakeid;
+
+/**
+ * encoding and decoding of one {@link IdLayout} with tenantId and nodeId of a helper
+ */
+interface IdLayoutCodec {
+    /**
+     * ID of tick since startTime and sequence, with tenantId and nodeId of the helper
+     */
+    long encode(long tick, long sequence);
+
+    /**
+     * tick since startTime of ID
+     */
+    long tickOf(long id);
+
+    long tenantOf(long id);
+
+    long nodeOf(long id);
+
+    long sequenceOf(long id);
+}
@@ -0,0 +1,18 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * use last bitsOfNode of long value of ipv4 as node id, two hosts in different subnets may collide
+ */
+public class IpWorkerIdAssigner implements WorkerIdAssigner {
+    @Override
+    public long assign(long maxNodeNum) {
+        String ipv4 = NetworkUtils.getIpV4();
+        if (null != ipv4) {
+            return NetworkUtils.ipV4ToLong(ipv4) & maxNodeNum;
+        }
+        //fallback if we can't get ipv4
+        return ThreadLocalRandom.current().nextLong(maxNodeNum + 1);
+    }
+}
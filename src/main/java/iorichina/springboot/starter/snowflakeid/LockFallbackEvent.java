@@ -0,0 +1,26 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event of {@link RecyclableAtomicLong} falling back to its lock after maxTry, the duration is the time holding and waiting for the lock,
+ * disabled by default
+ */
+@Name("iorichina.snowflakeid.LockFallback")
+@Label("Lock Fallback")
+@Category("SnowFlakeId")
+@Description("recyclable sequence fell back to the lock after retries of CAS")
+@Enabled(false)
+@Threshold("20 us")
+final class LockFallbackEvent extends jdk.jfr.Event {
+    @Label("Max Try")
+    int maxTry;
+    @Label("Threshold")
+    @Description("max sequence before recycling to 0")
+    long threshold;
+}
@@ -0,0 +1,30 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * clock moved by hand, for tests
+ */
+public class ManualTimeSource implements TimeSource {
+    private volatile long nanos;
+
+    public ManualTimeSource(long time, TimeUnit unit) {
+        this.nanos = unit.toNanos(time);
+    }
+
+    @Override
+    public long currentTime(TimeUnit unit) {
+        return unit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void setTime(long time, TimeUnit unit) {
+        this.nanos = unit.toNanos(time);
+    }
+
+    /**
+     * move forwards, or backwards with a negative duration
+     */
+    public synchronized void advance(long duration, TimeUnit unit) {
+        this.nanos += unit.toNanos(duration);
+    }
+}
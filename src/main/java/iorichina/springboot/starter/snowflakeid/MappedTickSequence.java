@@ -0,0 +1,299 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * packed tick and sequence of {@link PackedAtomicLong} in a memory-mapped file, updated by CAS of {@link VarHandle},
+ * so processes on one host share one sequence and could share one node id
+ * <p>
+ * before issuing on a tick beyond the checkpoint, the checkpoint is moved checkpointTicks ahead and forced to disk,
+ * when the first process starts after all of them crashed, the sequence starts after the checkpoint,
+ * so even a crash of the host never reissues a tick used before it;
+ * the last process closing cleanly forces the state, then a restart continues it without waiting for the ticks reserved ahead
+ * <p>
+ * one file is opened once in a JVM, processes sharing a file must use the same startTime, timeUnit and layout
+ */
+public class MappedTickSequence implements TickSequence, PackedWords, AutoCloseable {
+    private static final long MAGIC = 0x5346_4944_5345_5131L;
+    private static final int SIZE = 4096;
+    private static final int MAGIC_INDEX = 0;
+    private static final int SIGNATURE_INDEX = 8;
+    private static final int BITS_INDEX = 16;
+    /**
+     * 1 if the last process closed cleanly and forced the state, otherwise the state may be lost with the host
+     */
+    private static final int CLEAN_INDEX = 24;
+    /**
+     * words updated at runtime are 64 bytes apart
+     */
+    private static final int STATE_INDEX = 64;
+    /**
+     * tick forced to disk, no tick after it has been issued
+     */
+    private static final int CHECKPOINT_INDEX = 128;
+    /**
+     * checkpoint known to be forced, ticks up to it could be issued without forcing
+     */
+    private static final int DURABLE_INDEX = 192;
+    /**
+     * lock regions beyond the mapped words: initializing and closing are serialized by INIT,
+     * every open process holds a shared lock of LIVE
+     */
+    private static final long INIT_LOCK = SIZE;
+    private static final long LIVE_LOCK = SIZE + 1;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    final long bitsOfSequence;
+    final long maxSequence;
+    /**
+     * ticks reserved ahead of the issued one by each forced checkpoint
+     */
+    @Getter
+    final long checkpointTicks;
+    @Getter
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final FileLock live;
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+
+    /**
+     * @param file            shared by processes on one host, created if absent
+     * @param bitsOfSequence  bits of sequence in the packed word
+     * @param checkpointTicks ticks reserved ahead by each forced checkpoint, a restart after a crash may wait for them
+     * @param signature       startTime, timeUnit and layout of IDs in one long, processes with another one are rejected
+     * @throws IllegalStateException the file is already opened in this JVM, or opened with another signature or bits
+     */
+    public MappedTickSequence(Path file, long bitsOfSequence, long checkpointTicks, long signature) {
+        this.file = file;
+        this.bitsOfSequence = bitsOfSequence;
+        this.maxSequence = -1L ^ (-1L << bitsOfSequence);
+        this.checkpointTicks = Math.max(1, checkpointTicks);
+        FileChannel channel = null;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (null != parent) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.channel = channel;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+            try (FileLock ignored = channel.lock(INIT_LOCK, 1, false)) {
+                open(signature);
+                FileLock last = channel.tryLock(LIVE_LOCK, 1, false);
+                if (null != last) {
+                    recover();
+                    last.release();
+                }
+                this.live = channel.lock(LIVE_LOCK, 1, true);
+            }
+        } catch (OverlappingFileLockException e) {
+            closeQuietly(channel);
+            throw new IllegalStateException("shared state file is already opened in this JVM: " + file, e);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException("fail to map shared state file " + file, e);
+        } catch (RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * signature of IDs sharing a file, stable among processes
+     */
+    public static long signature(LocalDateTime startTime, TimeUnit unit, IdLayout layout) {
+        long signature = startTime.toString().hashCode();
+        signature = signature * 31 + unit.name().hashCode();
+        signature = signature * 31 + layout.getBitsOfTime();
+        signature = signature * 31 + layout.getBitsOfTenant();
+        signature = signature * 31 + layout.getBitsOfNode();
+        return signature * 31 + layout.getBitsOfAutoincrement();
+    }
+
+    /**
+     * initialize header of a new file, or check the one of an existing file
+     */
+    private void open(long signature) {
+        if (MAGIC != get(MAGIC_INDEX)) {
+            set(SIGNATURE_INDEX, signature);
+            set(BITS_INDEX, bitsOfSequence);
+            set(STATE_INDEX, -1L);
+            set(CHECKPOINT_INDEX, -1L);
+            set(DURABLE_INDEX, -1L);
+            set(CLEAN_INDEX, 1L);
+            buffer.force();
+            set(MAGIC_INDEX, MAGIC);
+            buffer.force();
+            return;
+        }
+        if (signature != get(SIGNATURE_INDEX) || bitsOfSequence != get(BITS_INDEX)) {
+            throw new IllegalStateException("shared state file " + file + " is used by IDs of another startTime, timeUnit or layout");
+        }
+    }
+
+    /**
+     * first process after all of them stopped: continue the state forced by a clean close,
+     * otherwise the state may be lost with the host, start after the checkpoint forced
+     */
+    private void recover() {
+        long checkpoint = get(CHECKPOINT_INDEX);
+        if (1L != get(CLEAN_INDEX)) {
+            long recovered = checkpoint < 0 ? -1L : (checkpoint << bitsOfSequence) | maxSequence;
+            if (recovered > get(STATE_INDEX)) {
+                set(STATE_INDEX, recovered);
+            }
+        }
+        set(DURABLE_INDEX, checkpoint);
+        set(CLEAN_INDEX, 0L);
+        buffer.force();
+    }
+
+    @Override
+    public long getAndIncrementWithTick(long tick) {
+        return getAndAddWithTick(tick, 1);
+    }
+
+    @Override
+    public long getAndAddWithTick(long tick, long count) {
+        if (tick > get(DURABLE_INDEX)) {
+            checkpoint(tick);
+        }
+        return PackedWords.getAndAdd(this, STATE_INDEX, bitsOfSequence, tick, count, 0, maxSequence, false);
+    }
+
+    @Override
+    public final long word(int index) {
+        return get(index);
+    }
+
+    @Override
+    public final boolean casWord(int index, long expect, long update) {
+        return LONGS.compareAndSet(buffer, index, expect, update);
+    }
+
+    @Override
+    public long getAndAddOnTick(long tick, long count) {
+        if (tick > get(DURABLE_INDEX)) {
+            checkpoint(tick);
+        }
+        return PackedWords.getAndAdd(this, STATE_INDEX, bitsOfSequence, tick, count, 0, maxSequence, true);
+    }
+
+    /**
+     * move the checkpoint checkpointTicks ahead of tick and force it to disk before issuing on tick
+     */
+    private void checkpoint(long tick) {
+        checkpointLock.lock();
+        try {
+            if (tick <= get(DURABLE_INDEX)) {
+                return;
+            }
+            long checkpoint = max(CHECKPOINT_INDEX, tick + checkpointTicks);
+            buffer.force(CHECKPOINT_INDEX, Long.BYTES);
+            max(DURABLE_INDEX, checkpoint);
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * raise word at index to at least value by CAS, return the value after it
+     */
+    private long max(int index, long value) {
+        for (; ; ) {
+            long current = get(index);
+            if (current >= value) {
+                return current;
+            }
+            if (LONGS.compareAndSet(buffer, index, current, value)) {
+                return value;
+            }
+        }
+    }
+
+    private long get(int index) {
+        return (long) LONGS.getVolatile(buffer, index);
+    }
+
+    private void set(int index, long value) {
+        LONGS.setVolatile(buffer, index, value);
+    }
+
+    @Override
+    public long rangeOf(long first, long count) {
+        return Math.min(count, maxSequence - (first & maxSequence) + 1);
+    }
+
+    @Override
+    public long tickOf(long packed) {
+        return packed >> bitsOfSequence;
+    }
+
+    @Override
+    public long sequenceOf(long packed) {
+        return packed & maxSequence;
+    }
+
+    @Override
+    public long remainingOf(long tick) {
+        long current = get(STATE_INDEX);
+        if (tick > (current >> bitsOfSequence)) {
+            return maxSequence + 1;
+        }
+        return maxSequence - (current & maxSequence);
+    }
+
+    /**
+     * tick forced to disk, a start after all processes crashed starts after it
+     */
+    public long getCheckpoint() {
+        return get(CHECKPOINT_INDEX);
+    }
+
+    /**
+     * release the file, the last process forces the state so a restart continues it
+     */
+    @Override
+    public void close() throws IOException {
+        try (FileLock ignored = channel.lock(INIT_LOCK, 1, false)) {
+            live.release();
+            FileLock last = channel.tryLock(LIVE_LOCK, 1, false);
+            if (null != last) {
+                long lastTick = get(STATE_INDEX) >> bitsOfSequence;
+                set(CHECKPOINT_INDEX, lastTick);
+                set(CLEAN_INDEX, 1L);
+                buffer.force();
+                set(DURABLE_INDEX, lastTick);
+                last.release();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (null != channel) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
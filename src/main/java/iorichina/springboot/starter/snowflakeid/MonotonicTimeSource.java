@@ -0,0 +1,40 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * System.nanoTime() anchored on wall clock at creation, nanosecond resolution and never goes backwards,
+ * but it drifts from wall clock as NTP adjusts the system clock
+ */
+public class MonotonicTimeSource implements TimeSource {
+    private volatile Anchor anchor;
+
+    public MonotonicTimeSource() {
+        reanchor();
+    }
+
+    /**
+     * anchor on wall clock again, such as after the JVM is restored from a checkpoint, when System.nanoTime() skips the time stopped
+     */
+    public void reanchor() {
+        Instant instant = Instant.now();
+        this.anchor = new Anchor(instant.getEpochSecond() * 1_000_000_000L + instant.getNano(), System.nanoTime());
+    }
+
+    @Override
+    public long currentTime(TimeUnit unit) {
+        Anchor anchor = this.anchor;
+        return unit.convert(anchor.nanos + (System.nanoTime() - anchor.nanoTime), TimeUnit.NANOSECONDS);
+    }
+
+    private static final class Anchor {
+        final long nanos;
+        final long nanoTime;
+
+        Anchor(long nanos, long nanoTime) {
+            this.nanos = nanos;
+            this.nanoTime = nanoTime;
+        }
+    }
+}
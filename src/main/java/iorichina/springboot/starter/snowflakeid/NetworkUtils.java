@@ -12,7 +12,37 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 public final class NetworkUtils {
-    public static String IP_V4 = getLocalIpV4();
+    /**
+     * local ipv4 address, only filled by {@link #getIpV4()}, null before its first call
+     *
+     * @deprecated network interfaces are no longer enumerated on class loading, use {@link #getIpV4()}
+     */
+    @Deprecated
+    public static String IP_V4;
+    /**
+     * cache of {@link #getIpV4()}, network interfaces are enumerated on first use and again after {@link #resetIpV4()}
+     */
+    private static volatile String ipV4;
+    private static volatile boolean resolved = false;
+
+    /**
+     * local ipv4 address resolved once and cached, null if there is none
+     */
+    public static String getIpV4() {
+        if (!resolved) {
+            ipV4 = getLocalIpV4();
+            IP_V4 = ipV4;
+            resolved = true;
+        }
+        return ipV4;
+    }
+
+    /**
+     * forget the cached address, it is resolved again on next use, such as after the JVM is restored on another host
+     */
+    public static void resetIpV4() {
+        resolved = false;
+    }
 
     public static final String getLocalIpV4() {
         List<String> addresses = getLocalHostAddresses();
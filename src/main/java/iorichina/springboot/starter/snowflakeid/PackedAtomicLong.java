@@ -0,0 +1,106 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * last issued tick and sequence packed into one word: (tick &lt;&lt; bitsOfSequence) | sequence
+ * <p>
+ * every call is one CAS and allocates nothing, a tick is retired to {@link #retireTo} when a newer tick starts,
+ * and starts after the IDs issued on it there ahead of the clock
+ */
+public class PackedAtomicLong extends AtomicLong implements TickSequence, PackedWords {
+    final long bitsOfSequence;
+    final long maxSequence;
+    /**
+     * ticks no longer issued here continue in it, set before issuing any tick
+     */
+    private BackfillTickSequence retired;
+
+    /**
+     * starts before tick 0, so the first call of any tick starts a new tick
+     *
+     * @param bitsOfSequence bits of sequence in the packed word
+     */
+    public PackedAtomicLong(long bitsOfSequence) {
+        super(-1L);
+        this.bitsOfSequence = bitsOfSequence;
+        this.maxSequence = -1L ^ (-1L << bitsOfSequence);
+    }
+
+    @Override
+    public final long getAndIncrementWithTick(long tick) {
+        return getAndAddWithTick(tick, 1);
+    }
+
+    @Override
+    public final long getAndAddWithTick(long tick, long count) {
+        return PackedWords.getAndAdd(this, 0, bitsOfSequence, tick, count, 0, maxSequence, false);
+    }
+
+    @Override
+    public final long getAndAddOnTick(long tick, long count) {
+        return PackedWords.getAndAdd(this, 0, bitsOfSequence, tick, count, 0, maxSequence, true);
+    }
+
+    /**
+     * the last tick and sequence are published to backfill before a newer tick starts,
+     * so explicit times of older ticks continue after the IDs issued here
+     */
+    void retireTo(BackfillTickSequence backfill) {
+        this.retired = backfill;
+    }
+
+    /**
+     * use up the last tick, so it is never issued again and the next call starts a newer tick
+     */
+    void seal() {
+        getAndUpdate(word -> word | maxSequence);
+    }
+
+    @Override
+    public final void retire(int index, long word) {
+        if (null != retired) {
+            retired.retire(word);
+        }
+    }
+
+    @Override
+    public final long firstOf(int index, long tick, long firstSequence) {
+        return null == retired ? firstSequence : retired.claim(tick, firstSequence);
+    }
+
+    @Override
+    public final long word(int index) {
+        return get();
+    }
+
+    @Override
+    public final boolean casWord(int index, long expect, long update) {
+        return compareAndSet(expect, update);
+    }
+
+    @Override
+    public final long rangeOf(long first, long count) {
+        return Math.min(count, maxSequence - (first & maxSequence) + 1);
+    }
+
+    @Override
+    public final long tickOf(long packed) {
+        return packed >> bitsOfSequence;
+    }
+
+    @Override
+    public final long sequenceOf(long packed) {
+        return packed & maxSequence;
+    }
+
+    @Override
+    public final long remainingOf(long tick) {
+        long current = get();
+        if (tick > (current >> bitsOfSequence)) {
+            return maxSequence + 1;
+        }
+        return maxSequence - (current & maxSequence);
+    }
+
+}
@@ -0,0 +1,79 @@
+package iorichina.springboot.starter.snowflakeid;
+
+/**
+ * words of packed tick and sequence: (tick << bitsOfSequence) | sequence, read and CAS by index,
+ * {@link #getAndAdd} is the one issuing loop shared by every {@link TickSequence}
+ * <p>
+ * implemented by the sequence itself and passed as this, so the loop inlined into it calls its own final methods
+ */
+interface PackedWords {
+    /**
+     * 16 longs(128 bytes) between words updated by different threads, avoid false sharing with adjacent cache line prefetch
+     */
+    int PAD = 16;
+
+    long word(int index);
+
+    boolean casWord(int index, long expect, long update);
+
+    /**
+     * the word at index is about to start a newer tick, its last tick is no longer issued on it
+     */
+    default void retire(int index, long word) {
+    }
+
+    /**
+     * first sequence of tick about to start in the word at index, such as after IDs issued elsewhere on it
+     *
+     * @return firstSequence or later, beyond lastSequence if tick is used up
+     */
+    default long firstOf(int index, long tick, long firstSequence) {
+        return firstSequence;
+    }
+
+    /**
+     * reserve a range of sequence of tick in the word at index, in one CAS
+     * <p>
+     * a tick newer than the word starts at {@link #firstOf} after retiring the word, it is used up if that is beyond lastSequence, a tick older than the word continues on the word unless exact,
+     * the range is at most count and never goes beyond lastSequence
+     *
+     * @param exact older ticks are not issued on the word, {@link TickSequence#STALE} is returned instead
+     * @return packed tick and first sequence of the range, ~tick of the word if it is used up
+     */
+    static long getAndAdd(PackedWords words, int index, long bitsOfSequence, long tick, long count,
+                          long firstSequence, long lastSequence, boolean exact) {
+        long maxSequence = -1L ^ (-1L << bitsOfSequence);
+        for (; ; ) {
+            long current = words.word(index);
+            long first;
+            long next;
+            long lastTick = current >> bitsOfSequence;
+            if (tick > lastTick) {
+                if (lastTick >= 0) {
+                    words.retire(index, current);
+                }
+                long start = words.firstOf(index, tick, firstSequence);
+                if (start > lastSequence) {
+                    if (words.casWord(index, current, (tick << bitsOfSequence) | lastSequence)) {
+                        return ~tick;
+                    }
+                    continue;
+                }
+                first = (tick << bitsOfSequence) | start;
+                next = first + Math.min(count, lastSequence - start + 1) - 1;
+            } else if (exact && tick < lastTick) {
+                return TickSequence.STALE;
+            } else {
+                long sequence = current & maxSequence;
+                if (sequence >= lastSequence) {
+                    return ~lastTick;
+                }
+                first = current + 1;
+                next = current + Math.min(count, lastSequence - sequence);
+            }
+            if (words.casWord(index, current, next)) {
+                return first;
+            }
+        }
+    }
+}
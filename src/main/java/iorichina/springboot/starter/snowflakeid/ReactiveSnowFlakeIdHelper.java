@@ -0,0 +1,149 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import lombok.Getter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * IDs of {@link SnowFlakeIdHelper} as reactive streams,
+ * sequence is reserved in ranges sized to demand of subscriber and never blocks a thread:
+ * when the sequence of current tick is used up, emitting resumes on scheduler in the next tick
+ * <p>
+ * overflowPolicy FAIL signals {@link SequenceExhaustedException}, other policies wait for the next tick
+ */
+@Getter
+public class ReactiveSnowFlakeIdHelper {
+    private final SnowFlakeIdHelper helper;
+    /**
+     * scheduler waiting for the next tick on
+     */
+    private final Scheduler scheduler;
+    /**
+     * max IDs reserved in one step, larger demand is reserved in steps
+     */
+    private final int maxBatchSize;
+
+    public ReactiveSnowFlakeIdHelper(SnowFlakeIdHelper helper, Scheduler scheduler, int maxBatchSize) {
+        this.helper = helper;
+        this.scheduler = scheduler;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * endless IDs in current timestamp, generated on demand
+     */
+    public Flux<Long> ids() {
+        return Flux.create(sink -> {
+            Emitter emitter = new Emitter(sink);
+            sink.onRequest(n -> emitter.drain());
+            sink.onDispose(emitter::dispose);
+        });
+    }
+
+    /**
+     * n IDs in current timestamp, generated on demand
+     */
+    public Flux<Long> ids(long n) {
+        return ids().take(n, true);
+    }
+
+    /**
+     * n IDs in current timestamp in one array
+     */
+    public Mono<long[]> genIds(int n) {
+        return Mono.fromFuture(() -> helper.genIdsAsync(n));
+    }
+
+    /**
+     * retry claimed but not scheduled yet
+     */
+    private static final Disposable PENDING = () -> {
+    };
+    /**
+     * emitter disposed, no retry is scheduled any more
+     */
+    private static final Disposable DISPOSED = () -> {
+    };
+
+    /**
+     * emits IDs for one subscriber, drain() is serialized by wip
+     * <p>
+     * at most one retry is pending: it is scheduled only when retry is null and clears retry when it runs
+     */
+    private class Emitter {
+        private final FluxSink<Long> sink;
+        private final long[] buffer;
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicReference<Disposable> retry = new AtomicReference<>();
+
+        Emitter(FluxSink<Long> sink) {
+            this.sink = sink;
+            this.buffer = new long[maxBatchSize];
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (; ; ) {
+                long demand = sink.requestedFromDownstream();
+                while (demand > 0 && !sink.isCancelled()) {
+                    int filled;
+                    try {
+                        filled = helper.tryFill(buffer, 0, (int) Math.min(demand, buffer.length));
+                        if (0 == filled) {
+                            scheduleRetry();
+                            break;
+                        }
+                    } catch (RuntimeException e) {
+                        sink.error(e);
+                        return;
+                    }
+                    for (int i = 0; i < filled; i++) {
+                        sink.next(buffer[i]);
+                    }
+                    demand = sink.requestedFromDownstream();
+                }
+                missed = wip.addAndGet(-missed);
+                if (0 == missed) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * schedule a drain in the next tick unless one is pending,
+         * the scheduled retry replaces PENDING inside drain() so a later drain never overwrites it
+         */
+        private void scheduleRetry() {
+            if (!retry.compareAndSet(null, PENDING)) {
+                return;
+            }
+            Disposable scheduled = scheduler.schedule(this::retry, helper.nanosToRetry(), TimeUnit.NANOSECONDS);
+            if (!retry.compareAndSet(PENDING, scheduled) && DISPOSED == retry.get()) {
+                scheduled.dispose();
+            }
+        }
+
+        private void retry() {
+            if (DISPOSED != retry.getAndUpdate(current -> DISPOSED == current ? DISPOSED : null)) {
+                drain();
+            }
+        }
+
+        void dispose() {
+            Disposable retry = this.retry.getAndSet(DISPOSED);
+            if (null != retry) {
+                retry.dispose();
+            }
+        }
+    }
+}
@@ -1,13 +1,32 @@
 package iorichina.springboot.starter.snowflakeid;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * loop from 0 to threshold
+ * <p>
+ * getAndIncrementWithRecycle(tick) never wraps silently: after recycling to 0 on a tick,
+ * that tick and older ones are used up, since the IDs before recycling may already have every sequence of them
  */
 public class RecyclableAtomicLong extends AtomicLong {
     long threshold;
     int maxTry;
+    final LongAdder casRetries = new LongAdder();
+    final LongAdder lockFallbacks = new LongAdder();
+    /**
+     * newest tick issued on, read by recycling after it raised recycledTick, so either one sees the other
+     */
+    private final AtomicLong lastTick = new AtomicLong(Long.MIN_VALUE);
+    /**
+     * newest tick recycled to 0 on, raised before recycling so that a sequence after recycling always sees it
+     */
+    private final AtomicLong recycledTick = new AtomicLong(Long.MIN_VALUE);
+    /**
+     * not synchronized, which pins the carrier of a virtual thread
+     */
+    private final ReentrantLock lock = new ReentrantLock();
 
     /**
      * @param threshold 0 ~ threshold (include)
@@ -19,22 +38,94 @@ public class RecyclableAtomicLong extends AtomicLong {
         this.maxTry = maxTry;
     }
 
+    /**
+     * @return 0 ~ threshold, recycled to 0 whenever it is used up, even within one tick
+     */
     public final long getAndIncrementWithRecycle() {
+        return getAndIncrementWithRecycle(Long.MIN_VALUE, false);
+    }
+
+    /**
+     * @param tick tick the sequence is issued on
+     * @return 0 ~ threshold, or threshold + 1 if tick is not newer than the one recycled on, so it is used up
+     */
+    public final long getAndIncrementWithRecycle(long tick) {
+        return getAndIncrementWithRecycle(tick, true);
+    }
+
+    private long getAndIncrementWithRecycle(long tick, boolean checked) {
         for (int times = 0; ; times++) {
+            // used up, unless it still has to recycle to 0
+            if (checked && tick <= recycledTick.get() && get() <= threshold) {
+                return threshold + 1;
+            }
             long current = getAndIncrement();
             if (current <= threshold) {
+                if (checked) {
+                    raise(lastTick, tick);
+                    if (tick <= recycledTick.get()) {
+                        return threshold + 1;
+                    }
+                }
                 return current;
             }
+            if (checked) {
+                recycle(tick);
+            }
             compareAndSet(current, 0);
             if (times < maxTry) {
+                casRetries.increment();
                 continue;
             }
-            synchronized (this) {
+            lockFallbacks.increment();
+            LockFallbackEvent event = new LockFallbackEvent();
+            event.begin();
+            lock.lock();
+            try {
                 if (get() >= threshold) {
+                    if (checked) {
+                        recycle(tick);
+                    }
                     set(0);
                 }
+            } finally {
+                lock.unlock();
             }
+            event.end();
+            if (event.shouldCommit()) {
+                event.maxTry = maxTry;
+                event.threshold = threshold;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * use up tick and the newest one issued before recycling to 0
+     */
+    private void recycle(long tick) {
+        raise(recycledTick, tick);
+        raise(recycledTick, lastTick.get());
+    }
+
+    private static void raise(AtomicLong max, long tick) {
+        if (tick > max.get()) {
+            max.accumulateAndGet(tick, Math::max);
         }
     }
 
+    /**
+     * retries after recycling to 0 by CAS
+     */
+    public long getCasRetries() {
+        return casRetries.sum();
+    }
+
+    /**
+     * times falling back to lock after maxTry
+     */
+    public long getLockFallbacks() {
+        return lockFallbacks.sum();
+    }
+
 }
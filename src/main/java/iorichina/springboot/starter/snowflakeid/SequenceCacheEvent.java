@@ -0,0 +1,39 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of the sequence cache of strategy CACHE, a tick loaded or evicted, disabled by default
+ */
+@Name("iorichina.snowflakeid.SequenceCache")
+@Label("Sequence Cache")
+@Category("SnowFlakeId")
+@Description("sequence of a tick loaded into or evicted from the cache of strategy CACHE")
+@Enabled(false)
+@StackTrace(false)
+final class SequenceCacheEvent extends jdk.jfr.Event {
+    @Label("Action")
+    @Description("LOAD, or the removal cause of an eviction")
+    String action;
+    @Label("Time")
+    @Description("time in unit of the tick")
+    long time;
+    @Label("Sequence")
+    @Description("sequence issued of the tick when evicted")
+    long sequence;
+
+    static void commit(String action, long time, long sequence) {
+        SequenceCacheEvent event = new SequenceCacheEvent();
+        if (event.isEnabled()) {
+            event.action = action;
+            event.time = time;
+            event.sequence = sequence;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package iorichina.springboot.starter.snowflakeid;
+
+/**
+ * thrown when the sequence of a tick is used up and the overflow policy can't wait for another tick
+ */
+public class SequenceExhaustedException extends IllegalStateException {
+    public SequenceExhaustedException(String message) {
+        super(message);
+    }
+}
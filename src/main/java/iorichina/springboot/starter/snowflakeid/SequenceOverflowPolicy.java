@@ -0,0 +1,23 @@
+package iorichina.springboot.starter.snowflakeid;
+
+/**
+ * what to do when the sequence of a tick is used up
+ */
+public enum SequenceOverflowPolicy {
+    /**
+     * busy spin until the clock moves to the next tick
+     */
+    SPIN,
+    /**
+     * spin a while, then park with backoff until the clock moves to the next tick
+     */
+    PARK,
+    /**
+     * issue on up to maxBorrowTicks future ticks, then park like PARK
+     */
+    BORROW,
+    /**
+     * throw {@link SequenceExhaustedException}
+     */
+    FAIL,
+}
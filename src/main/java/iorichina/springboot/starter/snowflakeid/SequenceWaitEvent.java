@@ -0,0 +1,67 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JFR event of a call waiting on a used up sequence, from the first exhausted attempt to the tick it is issued on,
+ * disabled by default, enable it by {@code -XX:StartFlightRecording:iorichina.snowflakeid.SequenceWait#enabled=true} or a JFR settings file
+ */
+@Name("iorichina.snowflakeid.SequenceWait")
+@Label("Sequence Wait")
+@Category("SnowFlakeId")
+@Description("a call waited for the next tick or borrowed future ticks when the sequence of its tick was used up")
+@Enabled(false)
+@StackTrace(false)
+@Threshold("100 us")
+final class SequenceWaitEvent extends jdk.jfr.Event {
+    @Label("Overflow Policy")
+    String policy;
+    @Label("Unit")
+    String unit;
+    @Label("Requested Time")
+    @Description("time in unit requested by the call")
+    long requestedTime;
+    @Label("Issued Time")
+    @Description("time in unit of the issued ID, later than requested time if it waited or borrowed")
+    long issuedTime;
+    @Label("Attempts")
+    int attempts;
+
+    /**
+     * @return null if the event is disabled, so the exhausted path allocates nothing
+     */
+    static SequenceWaitEvent begin(SequenceOverflowPolicy policy, TimeUnit unit, long requestedTime) {
+        SequenceWaitEvent event = new SequenceWaitEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.policy = policy.name();
+        event.unit = unit.name();
+        event.requestedTime = requestedTime;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * commit a begun event if it is over the threshold
+     */
+    static void end(SequenceWaitEvent event, long issuedTime, int attempts) {
+        if (null == event) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.issuedTime = issuedTime;
+            event.attempts = attempts;
+            event.commit();
+        }
+    }
+}
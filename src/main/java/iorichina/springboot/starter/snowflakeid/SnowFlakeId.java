@@ -0,0 +1,31 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * generate a Long id of an entity by {@link SnowFlakeIdIdentifierGenerator}:
+ * <pre>
+ * &#64;Id
+ * &#64;SnowFlakeId
+ * private Long id;
+ * </pre>
+ */
+@IdGeneratorType(SnowFlakeIdIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowFlakeId {
+    /**
+     * name of `snowflakeid.generators.{name}`, empty means the primary SnowFlakeIdHelper
+     */
+    String generator() default "";
+
+    /**
+     * IDs reserved at once for a session, 0 means hibernate.jdbc.batch_size, or 50 without batching
+     */
+    int poolSize() default 0;
+}
@@ -0,0 +1,38 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import lombok.Getter;
+
+/**
+ * an anomaly of a helper kept in {@link SnowFlakeIdStats#getRecentAnomalies()}
+ */
+@Getter
+public class SnowFlakeIdAnomaly {
+    public enum Type {
+        /**
+         * the clock went backwards
+         */
+        CLOCK_REGRESSION,
+        /**
+         * a call failed with {@link SequenceExhaustedException}
+         */
+        SEQUENCE_FAILURE
+    }
+
+    /**
+     * wall clock in millis when it happened
+     */
+    private final long timeInMillis;
+    private final Type type;
+    /**
+     * time in unit of the helper it happened on, the last clock time of a regression or the tick used up of a failure
+     */
+    private final long time;
+    private final String detail;
+
+    public SnowFlakeIdAnomaly(long timeInMillis, Type type, long time, String detail) {
+        this.timeInMillis = timeInMillis;
+        this.type = type;
+        this.time = time;
+        this.detail = detail;
+    }
+}
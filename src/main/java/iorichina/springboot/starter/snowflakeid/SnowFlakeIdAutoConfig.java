@@ -1,21 +1,151 @@
 package iorichina.springboot.starter.snowflakeid;
 
+import lombok.extern.apachecommons.CommonsLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.Primary;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.concurrent.TimeUnit;
 
+@CommonsLog
 @Configuration
 @EnableConfigurationProperties(SnowFlakeIdProperties.class)
+@Import(SnowFlakeIdGeneratorsRegistrar.class)
+@ImportRuntimeHints(SnowFlakeIdRuntimeHints.class)
 public class SnowFlakeIdAutoConfig {
     @Bean
     @ConditionalOnMissingBean
-    public SnowFlakeIdHelper snowFlakeIdHelper(SnowFlakeIdProperties properties) {
+    public TimeSource snowFlakeIdTimeSource(SnowFlakeIdProperties properties) {
+        return switch (properties.getTimeSource()) {
+            case "MONOTONIC" -> new MonotonicTimeSource();
+            case "TICKER" -> new TickerTimeSource(TimeSource.SYSTEM, properties.getTimeSourceTickerIntervalMicros());
+            default -> TimeSource.SYSTEM;
+        };
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public WorkerIdAssigner snowFlakeIdWorkerIdAssigner(SnowFlakeIdProperties properties) {
+        if ("IP".equals(properties.getWorkerIdAssigner())) {
+            return WorkerIdAssigner.IP;
+        }
+        return new FileLockWorkerIdAssigner(Path.of(properties.getWorkerIdDirectory()), properties.getWorkerIdKey(), WorkerIdAssigner.IP);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnExpression("'${snowflakeid.shared-state-file:}' != ''")
+    public MappedTickSequence snowFlakeIdSharedSequence(SnowFlakeIdProperties properties) {
+        return createSharedSequence(properties);
+    }
+
+    /**
+     * primary one among helpers of `snowflakeid.generators.*`
+     */
+    @Bean
+    @Primary
+    @ConditionalOnMissingBean
+    public SnowFlakeIdHelper snowFlakeIdHelper(SnowFlakeIdProperties properties, TimeSource timeSource, WorkerIdAssigner workerIdAssigner,
+                                               ObjectProvider<MappedTickSequence> sharedSequence) {
+        return createHelper(properties, timeSource, workerIdAssigner, sharedSequence.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public UuidV7SnowFlakeIdHelper uuidV7SnowFlakeIdHelper(SnowFlakeIdHelper snowFlakeIdHelper) {
+        return new UuidV7SnowFlakeIdHelper(snowFlakeIdHelper);
+    }
+
+    static MappedTickSequence createSharedSequence(SnowFlakeIdProperties properties) {
+        TimeUnit unit = timeUnit(properties);
+        IdLayout layout = new IdLayout(properties.getBitsOfTime(), properties.getBitsOfTenant(), properties.getBitsOfNode(), properties.getBitsOfAutoincrement());
+        return new MappedTickSequence(Path.of(properties.getSharedStateFile()), layout.getBitsOfAutoincrement(),
+                Math.max(1, unit.convert(properties.getSharedStateCheckpointMillis(), TimeUnit.MILLISECONDS)),
+                MappedTickSequence.signature(LocalDateTime.parse(properties.getStartTime()), unit, layout));
+    }
+
+    /**
+     * @param shared null unless sharedStateFile is set
+     * @throws IllegalArgumentException sharedStateFile is set without a fixed nodeId
+     */
+    static SnowFlakeIdHelper createHelper(SnowFlakeIdProperties properties, TimeSource timeSource, WorkerIdAssigner workerIdAssigner, MappedTickSequence shared) {
         LocalDateTime startTime = LocalDateTime.parse(properties.getStartTime());
-        TimeUnit unit = switch (properties.getTimeUnit()) {
+        TimeUnit unit = timeUnit(properties);
+        long zoneId = properties.getTenantId();
+        long bitsOfTime = properties.getBitsOfTime();
+        long bitsOfZone = properties.getBitsOfTenant();
+        long bitsOfNode = properties.getBitsOfNode();
+        long nodeId = properties.getNodeId();
+        if (null != shared && -1 == nodeId) {
+            throw new IllegalArgumentException("snowflakeid.sharedStateFile needs a fixed snowflakeid.nodeId, "
+                    + "processes sharing the file must share the node id, but an assigned one differs by process");
+        }
+        if (-1 == nodeId) {
+            nodeId = workerIdAssigner.assign((-1L ^ (-1L << bitsOfNode)) >>> properties.getBitsOfShard());
+        }
+        long bitsOfAutoincrementMax = properties.getBitsOfAutoincrement();
+
+        String strategy = strategy(properties);
+        if (null != shared && "PACKED".equals(strategy)) {
+            strategy = "SHARED";
+        }
+        SnowFlakeIdHelper helper = switch (strategy) {
+            case "CACHE" -> new SnowFlakeIdHelper(startTime, unit, zoneId, nodeId, bitsOfTime, bitsOfZone, bitsOfNode, bitsOfAutoincrementMax, properties.getMaximumSize(), properties.isRecordStats());
+            case "STRIPED" -> new SnowFlakeIdHelper(startTime, unit, zoneId, nodeId, bitsOfTime, bitsOfZone, bitsOfNode, bitsOfAutoincrementMax, properties.getStripes(), properties.getMaximumSize());
+            case "SHARED" -> new SnowFlakeIdHelper(startTime, unit, zoneId, nodeId, new IdLayout(bitsOfTime, bitsOfZone, bitsOfNode, bitsOfAutoincrementMax), shared, properties.getMaximumSize());
+            default -> new SnowFlakeIdHelper(startTime, unit, zoneId, nodeId, bitsOfTime, bitsOfZone, bitsOfNode, bitsOfAutoincrementMax, 1, properties.getMaximumSize());
+        };
+        if (0 < properties.getBitsOfShard()) {
+            helper.setBitsOfShard(properties.getBitsOfShard());
+        }
+        if (-1 == properties.getNodeId()) {
+            helper.setWorkerIdAssigner(workerIdAssigner);
+        }
+        helper.setTimeSource(timeSource);
+        helper.setOverflowPolicy(SequenceOverflowPolicy.valueOf(properties.getOverflowPolicy()));
+        helper.setMaxBorrowTicks(properties.getMaxBorrowTicks());
+        helper.setClockRegressionPolicy(ClockRegressionPolicy.valueOf(properties.getClockRegressionPolicy()));
+        helper.setMaxClockRegressionWaitMillis(properties.getMaxClockRegressionWaitMillis());
+        return helper;
+    }
+
+    /**
+     * strategy, or the one of useCache if it is empty, the deprecated RECYCLABLE(useCache=false) is PACKED with a warning
+     *
+     * @throws IllegalArgumentException both are set and useCache conflicts with strategy
+     */
+    static String strategy(SnowFlakeIdProperties properties) {
+        String strategy = null == properties.getStrategy() ? "" : properties.getStrategy();
+        Boolean useCache = properties.getUseCache();
+        if (null == useCache) {
+            return strategy.isEmpty() ? "PACKED" : packedIfRecyclable(strategy);
+        }
+        String cached = useCache ? "CACHE" : "RECYCLABLE";
+        if (!strategy.isEmpty() && !strategy.equals(cached)) {
+            throw new IllegalArgumentException("snowflakeid.useCache=" + useCache + " conflicts with snowflakeid.strategy=" + strategy + ", remove useCache");
+        }
+        return packedIfRecyclable(cached);
+    }
+
+    private static String packedIfRecyclable(String strategy) {
+        if ("RECYCLABLE".equals(strategy)) {
+            log.warn("snowflakeid.strategy=RECYCLABLE(or useCache=false) is deprecated, its sequence is shared by all units of time, "
+                    + "using strategy=PACKED instead");
+            return "PACKED";
+        }
+        return strategy;
+    }
+
+    static TimeUnit timeUnit(SnowFlakeIdProperties properties) {
+        return switch (properties.getTimeUnit()) {
             case "NANOSECONDS" -> TimeUnit.NANOSECONDS;
             case "MICROSECONDS" -> TimeUnit.MICROSECONDS;
             case "SECONDS" -> TimeUnit.SECONDS;
@@ -24,16 +154,13 @@ public class SnowFlakeIdAutoConfig {
             case "DAYS" -> TimeUnit.DAYS;
             default -> TimeUnit.MILLISECONDS;
         };
-        long zoneId = properties.getTenantId();
-        long nodeId = properties.getNodeId();
-        long bitsOfTime = properties.getBitsOfTime();
-        long bitsOfZone = properties.getBitsOfTenant();
-        long bitsOfNode = properties.getBitsOfNode();
-        long bitsOfAutoincrementMax = properties.getBitsOfAutoincrement();
+    }
 
-        if (properties.isUseCache()) {
-            return new SnowFlakeIdHelper(startTime, unit, zoneId, nodeId, bitsOfTime, bitsOfZone, bitsOfNode, bitsOfAutoincrementMax, properties.getMaximumSize(), properties.isRecordStats());
-        }
-        return new SnowFlakeIdHelper(startTime, unit, zoneId, nodeId, bitsOfTime, bitsOfZone, bitsOfNode, bitsOfAutoincrementMax, properties.getRecyclableLongMaxTry());
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnExpression("${snowflakeid.ring-buffer-size:0} > 0")
+    public SnowFlakeIdRingBuffer snowFlakeIdRingBuffer(SnowFlakeIdHelper snowFlakeIdHelper, SnowFlakeIdProperties properties) {
+        return new SnowFlakeIdRingBuffer(snowFlakeIdHelper, properties.getRingBufferSize(), properties.getRingBufferPaddingFactor(),
+                properties.getRingBufferPaddingIntervalMillis(), !"PLATFORM".equals(properties.getRingBufferPaddingThread()));
     }
 }
@@ -0,0 +1,26 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.crac.Resource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@AutoConfigureAfter(SnowFlakeIdAutoConfig.class)
+@ConditionalOnClass(Resource.class)
+public class SnowFlakeIdCracAutoConfig {
+    /**
+     * hooks of all helpers, including those of `snowflakeid.generators.*`
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(SnowFlakeIdHelper.class)
+    public SnowFlakeIdCracResource snowFlakeIdCracResource(ObjectProvider<SnowFlakeIdHelper> helpers, ObjectProvider<SnowFlakeIdRingBuffer> ringBuffers,
+                                                           TimeSource timeSource, WorkerIdAssigner workerIdAssigner) {
+        return new SnowFlakeIdCracResource(helpers.orderedStream().toList(), ringBuffers.orderedStream().toList(), timeSource, workerIdAssigner);
+    }
+}
@@ -0,0 +1,52 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+import java.util.List;
+
+/**
+ * CRaC hooks of helpers, registered to the global context of CRaC when created and kept registered as long as it is referenced
+ * <p>
+ * before a checkpoint, node ids leased by {@link FileLockWorkerIdAssigner} are released as CRaC refuses to checkpoint open files;
+ * after restoring, the clock of {@link MonotonicTimeSource} is anchored again, each helper leases its node id again
+ * and moves past the tick of the checkpoint by {@link SnowFlakeIdHelper#restore()}, and IDs padded into rings before the checkpoint are dropped
+ * <p>
+ * {@link MappedTickSequence} keeps its file open, a checkpoint with sharedStateFile is refused by CRaC
+ */
+public class SnowFlakeIdCracResource implements Resource {
+    private final List<SnowFlakeIdHelper> helpers;
+    private final List<SnowFlakeIdRingBuffer> ringBuffers;
+    private final TimeSource timeSource;
+    private final WorkerIdAssigner workerIdAssigner;
+
+    public SnowFlakeIdCracResource(List<SnowFlakeIdHelper> helpers, List<SnowFlakeIdRingBuffer> ringBuffers, TimeSource timeSource, WorkerIdAssigner workerIdAssigner) {
+        this.helpers = helpers;
+        this.ringBuffers = ringBuffers;
+        this.timeSource = timeSource;
+        this.workerIdAssigner = workerIdAssigner;
+        Core.getGlobalContext().register(this);
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+        if (workerIdAssigner instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        NetworkUtils.resetIpV4();
+        if (timeSource instanceof MonotonicTimeSource monotonic) {
+            monotonic.reanchor();
+        }
+        for (SnowFlakeIdHelper helper : helpers) {
+            helper.restore();
+        }
+        for (SnowFlakeIdRingBuffer ringBuffer : ringBuffers) {
+            ringBuffer.discard();
+        }
+    }
+}
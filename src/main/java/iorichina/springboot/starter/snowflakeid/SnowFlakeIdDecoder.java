@@ -0,0 +1,145 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import lombok.Getter;
+
+import java.nio.LongBuffer;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bulk decoding of IDs into parallel arrays of time in millis, tenant, node and sequence by layout of {@link SnowFlakeIdHelper}
+ * <p>
+ * vectorized by the incubator Vector API when jdk.incubator.vector is in the boot layer(--add-modules jdk.incubator.vector),
+ * scalar otherwise, both give the same result as {@link SnowFlakeIdHelper#parseTimeInMillis(long)};
+ * times of units finer than millis are always scalar, as lane-wise division is much slower than the scalar one
+ */
+@Getter
+public class SnowFlakeIdDecoder {
+    /**
+     * VectorizedIdDecoder, only loaded when jdk.incubator.vector is resolved, null otherwise
+     */
+    private static final Vectorized VECTOR = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent() ? loadVectorized() : null;
+    /**
+     * the vectorized path is available
+     */
+    public static final boolean VECTORIZED = null != VECTOR;
+    /**
+     * IDs copied from a LongBuffer without array in one step
+     */
+    private static final int CHUNK = 512;
+
+    final long startTime;
+    final long leftOfTime;
+    final long leftOfTenant;
+    final long leftOfNode;
+    final long maxTenantNum;
+    final long maxNodeNum;
+    final long maxAutoincrementNum;
+    /**
+     * millis of one unit of time, 0 if unit is finer than millis
+     */
+    final long millisPerUnit;
+    /**
+     * units of time in one millis, 0 if unit is millis or coarser
+     */
+    final long unitsPerMillis;
+
+    public SnowFlakeIdDecoder(SnowFlakeIdHelper helper) {
+        this.startTime = helper.getStartTime();
+        this.leftOfTime = helper.getLeftOfTime();
+        this.leftOfTenant = helper.getLeftOfTenant();
+        this.leftOfNode = helper.getLeftOfNode();
+        this.maxTenantNum = helper.getMaxTenantNum();
+        this.maxNodeNum = helper.getMaxNodeNum();
+        this.maxAutoincrementNum = helper.getMaxAutoincrementNum();
+        TimeUnit unit = helper.getUnit();
+        this.millisPerUnit = unit.toMillis(1);
+        this.unitsPerMillis = 0 == millisPerUnit ? unit.convert(1, TimeUnit.MILLISECONDS) : 0;
+    }
+
+    /**
+     * decode ids[idsOff, idsOff + len) into times, tenants, nodes and sequences at [off, off + len),
+     * any of the output arrays can be null to skip it
+     *
+     * @param times time in millis since epoch, the same as {@link SnowFlakeIdHelper#parseTimeInMillis(long)}
+     */
+    public void decode(long[] ids, int idsOff, long[] times, long[] tenants, long[] nodes, long[] sequences, int off, int len) {
+        Objects.checkFromIndexSize(idsOff, len, ids.length);
+        checkOutput(times, off, len);
+        checkOutput(tenants, off, len);
+        checkOutput(nodes, off, len);
+        checkOutput(sequences, off, len);
+        int done = 0;
+        if (null != VECTOR && (null == times || 0 == unitsPerMillis)) {
+            done = VECTOR.decode(this, ids, idsOff, times, tenants, nodes, sequences, off, len);
+        }
+        decodeScalar(ids, idsOff + done, times, tenants, nodes, sequences, off + done, len - done);
+    }
+
+    /**
+     * decode ids[position, limit) into times, tenants, nodes and sequences at [off, off + ids.remaining()),
+     * any of the output arrays can be null to skip it, position of ids is not changed
+     */
+    public void decode(LongBuffer ids, long[] times, long[] tenants, long[] nodes, long[] sequences, int off) {
+        int len = ids.remaining();
+        if (ids.hasArray()) {
+            decode(ids.array(), ids.arrayOffset() + ids.position(), times, tenants, nodes, sequences, off, len);
+            return;
+        }
+        long[] chunk = new long[Math.min(CHUNK, len)];
+        for (int done = 0; done < len; ) {
+            int n = Math.min(chunk.length, len - done);
+            ids.get(ids.position() + done, chunk, 0, n);
+            decode(chunk, 0, times, tenants, nodes, sequences, off + done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * the same as decode() without the vectorized path
+     */
+    void decodeScalar(long[] ids, int idsOff, long[] times, long[] tenants, long[] nodes, long[] sequences, int off, int len) {
+        for (int i = 0; i < len; i++) {
+            long id = ids[idsOff + i];
+            if (null != times) {
+                long time = startTime + (id >>> leftOfTime);
+                times[off + i] = 0 == unitsPerMillis ? time * millisPerUnit : time / unitsPerMillis;
+            }
+            if (null != tenants) {
+                tenants[off + i] = (id >>> leftOfTenant) & maxTenantNum;
+            }
+            if (null != nodes) {
+                nodes[off + i] = (id >>> leftOfNode) & maxNodeNum;
+            }
+            if (null != sequences) {
+                sequences[off + i] = id & maxAutoincrementNum;
+            }
+        }
+    }
+
+    private static Vectorized loadVectorized() {
+        try {
+            return (Vectorized) Class.forName("iorichina.springboot.starter.snowflakeid.VectorizedIdDecoder").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static void checkOutput(long[] output, int off, int len) {
+        if (null != output) {
+            Objects.checkFromIndexSize(off, len, output.length);
+        }
+    }
+
+    /**
+     * vectorized path compiled apart from main with jdk.incubator.vector, see VectorizedIdDecoder
+     */
+    interface Vectorized {
+        /**
+         * decode whole vectors of IDs, times only of units of millis or coarser, the tail shorter than one vector is left to the scalar path
+         *
+         * @return count of IDs decoded
+         */
+        int decode(SnowFlakeIdDecoder decoder, long[] ids, int idsOff, long[] times, long[] tenants, long[] nodes, long[] sequences, int off, int len);
+    }
+}
@@ -0,0 +1,143 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * `/actuator/snowflakeid` of the helper and those of `snowflakeid.generators.*`: layout, tenant and node,
+ * sequence left in current tick, years left of time bits, counters and recent anomalies
+ * <p>
+ * everything is read when the endpoint is called, nothing is added to the path of generating IDs
+ */
+@Endpoint(id = "snowflakeid")
+public class SnowFlakeIdEndpoint {
+    /**
+     * name of the primary helper, the same as tag `name` of its meters
+     */
+    static final String DEFAULT = "default";
+    private static final double HOURS_OF_YEAR = 365.2425 * 24;
+
+    private final SnowFlakeIdHelper helper;
+    private final SnowFlakeIdGenerators generators;
+
+    /**
+     * @param generators null without `snowflakeid.generators`
+     */
+    public SnowFlakeIdEndpoint(SnowFlakeIdHelper helper, SnowFlakeIdGenerators generators) {
+        this.helper = helper;
+        this.generators = generators;
+    }
+
+    /**
+     * all helpers by name, the primary one is `default`
+     */
+    @ReadOperation
+    public Map<String, Object> helpers() {
+        Map<String, Object> helpers = new LinkedHashMap<>();
+        helpers.put(DEFAULT, describe(helper));
+        if (null != generators) {
+            generators.forEach((name, generator) -> helpers.put(name, describe(generator)));
+        }
+        return helpers;
+    }
+
+    /**
+     * @return null(404) if there is no helper of name
+     */
+    @ReadOperation
+    public Map<String, Object> helper(@Selector String name) {
+        if (DEFAULT.equals(name)) {
+            return describe(helper);
+        }
+        if (null == generators || !generators.getNames().contains(name)) {
+            return null;
+        }
+        return describe(generators.get(name));
+    }
+
+    static Map<String, Object> describe(SnowFlakeIdHelper helper) {
+        TimeUnit unit = helper.getUnit();
+        long now = helper.getTimeSource().currentTime(unit);
+        long end = helper.getStartTime() + helper.getMaxTimeNum();
+
+        Map<String, Object> layout = new LinkedHashMap<>();
+        layout.put("strategy", strategyOf(helper));
+        layout.put("timeUnit", unit.name());
+        layout.put("startTime", localDateTimeOf(helper, helper.getStartTime()));
+        layout.put("bitsOfTime", helper.getBitsOfTime());
+        layout.put("bitsOfTenant", helper.getBitsOfTenant());
+        layout.put("bitsOfNode", helper.getBitsOfNode());
+        layout.put("bitsOfShard", helper.getBitsOfShard());
+        layout.put("bitsOfAutoincrement", helper.getBitsOfAutoincrement());
+
+        Map<String, Object> runway = new LinkedHashMap<>();
+        runway.put("endTime", localDateTimeOf(helper, end));
+        runway.put("years", Math.max(0, unit.toHours(end - now)) / HOURS_OF_YEAR);
+        runway.put("usedRatio", Math.min(1.0, Math.max(0, now - helper.getStartTime()) / (double) (helper.getMaxTimeNum() + 1)));
+
+        SnowFlakeIdStats stats = helper.getStats();
+        Map<String, Object> counters = new LinkedHashMap<>();
+        counters.put("issued", stats.getIssued());
+        counters.put("exhausted", stats.getExhausted());
+        counters.put("spins", stats.getSpins());
+        counters.put("parks", stats.getParks());
+        counters.put("borrows", stats.getBorrows());
+        counters.put("failures", stats.getFailures());
+        counters.put("clockRegressions", stats.getClockRegressions());
+        counters.put("maxClockRegressionTicks", stats.getMaxClockRegressionTicks());
+        if (null != helper.getSequence()) {
+            counters.put("lockFallbacks", helper.getSequence().getLockFallbacks());
+        }
+
+        List<Map<String, Object>> anomalies = stats.getRecentAnomalies().stream().map(anomaly -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("at", Instant.ofEpochMilli(anomaly.getTimeInMillis()).toString());
+            map.put("type", anomaly.getType().name());
+            map.put("detail", anomaly.getDetail());
+            return map;
+        }).toList();
+
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("layout", layout);
+        description.put("tenantId", helper.getTenantId());
+        description.put("nodeId", helper.getNodeId() >>> helper.getBitsOfShard());
+        description.put("remainingSequence", helper.getRemainingSequence());
+        description.put("overflowPolicy", helper.getOverflowPolicy().name());
+        description.put("clockRegressionPolicy", helper.getClockRegressionPolicy().name());
+        description.put("runway", runway);
+        description.put("counters", counters);
+        description.put("recentAnomalies", anomalies);
+        return description;
+    }
+
+    private static String strategyOf(SnowFlakeIdHelper helper) {
+        if (null != helper.getSequenceCache()) {
+            return "CACHE";
+        }
+        if (null != helper.getSequence()) {
+            return "RECYCLABLE";
+        }
+        if (helper.getPackedSequence() instanceof StripedTickSequence) {
+            return "STRIPED";
+        }
+        if (helper.getPackedSequence() instanceof MappedTickSequence) {
+            return "SHARED";
+        }
+        return "PACKED";
+    }
+
+    private static String localDateTimeOf(SnowFlakeIdHelper helper, long time) {
+        TimeUnit unit = helper.getUnit();
+        long seconds = unit.toSeconds(time);
+        long nanos = unit.toNanos(time - unit.convert(seconds, TimeUnit.SECONDS));
+        return LocalDateTime.ofEpochSecond(seconds, (int) nanos, helper.getOffset()).toString();
+    }
+}
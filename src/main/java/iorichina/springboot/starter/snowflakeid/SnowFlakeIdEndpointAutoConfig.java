@@ -0,0 +1,27 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@AutoConfigureAfter(SnowFlakeIdAutoConfig.class)
+@ConditionalOnClass({Endpoint.class, ConditionalOnAvailableEndpoint.class})
+public class SnowFlakeIdEndpointAutoConfig {
+    /**
+     * `/actuator/snowflakeid`, exposed by `management.endpoints.web.exposure.include=snowflakeid`
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(SnowFlakeIdHelper.class)
+    @ConditionalOnAvailableEndpoint
+    public SnowFlakeIdEndpoint snowFlakeIdEndpoint(SnowFlakeIdHelper snowFlakeIdHelper, ObjectProvider<SnowFlakeIdGenerators> snowFlakeIdGenerators) {
+        return new SnowFlakeIdEndpoint(snowFlakeIdHelper, snowFlakeIdGenerators.getIfAvailable());
+    }
+}
@@ -0,0 +1,38 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * helpers of `snowflakeid.generators.*` by name, each one with its own layout, time unit, strategy and sequence
+ * <p>
+ * inject one of them by `@Qualifier("name") SnowFlakeIdHelper`, or look it up here by a name known at runtime
+ */
+public class SnowFlakeIdGenerators {
+    private final Map<String, SnowFlakeIdHelper> helpers;
+
+    public SnowFlakeIdGenerators(Map<String, SnowFlakeIdHelper> helpers) {
+        this.helpers = Collections.unmodifiableMap(helpers);
+    }
+
+    /**
+     * @throws IllegalArgumentException no generator of name
+     */
+    public SnowFlakeIdHelper get(String name) {
+        SnowFlakeIdHelper helper = helpers.get(name);
+        if (null == helper) {
+            throw new IllegalArgumentException("no snowflakeid generator named " + name + " in " + helpers.keySet());
+        }
+        return helper;
+    }
+
+    public Set<String> getNames() {
+        return helpers.keySet();
+    }
+
+    public void forEach(BiConsumer<String, SnowFlakeIdHelper> action) {
+        helpers.forEach(action);
+    }
+}
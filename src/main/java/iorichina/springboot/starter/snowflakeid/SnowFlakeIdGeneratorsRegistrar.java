@@ -0,0 +1,109 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * register one {@link SnowFlakeIdHelper} for each `snowflakeid.generators.{name}.*`, named `{name}SnowFlakeIdHelper` with qualifier `name`,
+ * and {@link SnowFlakeIdGenerators} of them
+ * <p>
+ * a generator starts from the values of `snowflakeid.*` and overrides them, except sharedStateFile which is only its own;
+ * TimeSource and WorkerIdAssigner beans are shared by all generators
+ * <p>
+ * beans are defined by static factory methods with the name as argument, so Spring AOT could generate code of them,
+ * and properties are bound when beans are created rather than when they are defined
+ */
+class SnowFlakeIdGeneratorsRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware {
+    static final String PREFIX = "snowflakeid.generators";
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+        Set<String> names = Binder.get(environment).bind(PREFIX, Bindable.mapOf(String.class, Object.class)).orElseGet(Map::of).keySet();
+        if (names.isEmpty()) {
+            return;
+        }
+        for (String name : names) {
+            if (!bind(environment, name).getSharedStateFile().isEmpty()) {
+                RootBeanDefinition sequence = factory(MappedTickSequence.class, "createSharedSequence", name);
+                sequence.setDestroyMethodName("close");
+                sequence.setAutowireCandidate(false);
+                registry.registerBeanDefinition(sharedSequenceName(name), sequence);
+            }
+            RootBeanDefinition helper = factory(SnowFlakeIdHelper.class, "createHelper", name);
+            helper.addQualifier(new AutowireCandidateQualifier(Qualifier.class, name));
+            registry.registerBeanDefinition(helperName(name), helper);
+        }
+        registry.registerBeanDefinition("snowFlakeIdGenerators", factory(SnowFlakeIdGenerators.class, "createGenerators", names.toArray(new String[0])));
+    }
+
+    /**
+     * static factory method of this class, with argument at index 0 and the rest autowired
+     */
+    private static RootBeanDefinition factory(Class<?> type, String factoryMethod, Object argument) {
+        RootBeanDefinition definition = new RootBeanDefinition();
+        definition.setBeanClass(SnowFlakeIdGeneratorsRegistrar.class);
+        definition.setFactoryMethodName(factoryMethod);
+        definition.setTargetType(type);
+        definition.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_CONSTRUCTOR);
+        definition.getConstructorArgumentValues().addIndexedArgumentValue(0, argument);
+        return definition;
+    }
+
+    private static String sharedSequenceName(String name) {
+        return name + "SnowFlakeIdSharedSequence";
+    }
+
+    private static String helperName(String name) {
+        return name + "SnowFlakeIdHelper";
+    }
+
+    /**
+     * properties of generator name
+     */
+    static SnowFlakeIdProperties bind(Environment environment, String name) {
+        Binder binder = Binder.get(environment);
+        SnowFlakeIdProperties properties = binder.bind("snowflakeid", Bindable.of(SnowFlakeIdProperties.class)).orElseGet(SnowFlakeIdProperties::new);
+        properties.setSharedStateFile("");
+        binder.bind(PREFIX + "." + name, Bindable.ofInstance(properties));
+        return properties;
+    }
+
+    static MappedTickSequence createSharedSequence(String name, Environment environment) {
+        return SnowFlakeIdAutoConfig.createSharedSequence(bind(environment, name));
+    }
+
+    static SnowFlakeIdHelper createHelper(String name, Environment environment, TimeSource timeSource, WorkerIdAssigner workerIdAssigner, BeanFactory beanFactory) {
+        SnowFlakeIdProperties properties = bind(environment, name);
+        MappedTickSequence shared = properties.getSharedStateFile().isEmpty() ? null : beanFactory.getBean(sharedSequenceName(name), MappedTickSequence.class);
+        return SnowFlakeIdAutoConfig.createHelper(properties, timeSource, workerIdAssigner, shared);
+    }
+
+    static SnowFlakeIdGenerators createGenerators(String[] names, BeanFactory beanFactory) {
+        Map<String, SnowFlakeIdHelper> helpers = new LinkedHashMap<>();
+        for (String name : names) {
+            helpers.put(name, beanFactory.getBean(helperName(name), SnowFlakeIdHelper.class));
+        }
+        return new SnowFlakeIdGenerators(helpers);
+    }
+}
@@ -2,15 +2,23 @@ package iorichina.springboot.starter.snowflakeid;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
 
 /**
  * recommended bits of snowflake id:
@@ -29,10 +37,38 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 @Getter
 public class SnowFlakeIdHelper {
+    /**
+     * cache size of explicit times issued before a packed helper was created
+     */
+    private static final int DEFAULT_BACKFILL_SIZE = 1024;
+    /**
+     * spins before parking with policy PARK
+     */
+    private static final int PARK_AFTER_SPINS = 64;
+    private static final VarHandle LAST_CLOCK_TIME;
+
+    static {
+        try {
+            LAST_CLOCK_TIME = MethodHandles.lookup().findVarHandle(SnowFlakeIdHelper.class, "lastClockTime", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final long startTime;
     private final TimeUnit unit;
     private final long tenantId;
-    private final long nodeId;
+    /**
+     * assigned again on {@link #restore()}
+     */
+    private volatile long nodeId;
+
+    private final IdLayout layout;
+    /**
+     * layout with tenantId and nodeId specialized for the JIT
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile IdLayoutCodec codec;
 
     private final long bitsOfTime;
     private final long bitsOfTenant;
@@ -51,157 +87,1001 @@ public class SnowFlakeIdHelper {
     private final Cache<Long, AtomicLong> sequenceCache;
     private final ZoneOffset offset;
     private final RecyclableAtomicLong sequence;
+    private final TickSequence packedSequence;
+    /**
+     * packedSequence is given to the constructor, such as a {@link MappedTickSequence} shared by processes,
+     * sequences kept per process(other tenants, shards but 0, backfill) are rejected as they may collide across processes
+     */
+    private final boolean sharedSequence;
+    /**
+     * sequence of explicit times out of packedSequence for strategy PACKED and STRIPED
+     */
+    private final BackfillTickSequence backfillSequence;
+    /**
+     * time when packedSequence started, explicit times before it go to backfillSequence
+     */
+    private long packedSince;
+
+    /**
+     * what to do when the sequence of a tick is used up, strategy RECYCLABLE uses up the tick it recycles to 0 on
+     */
+    @Setter
+    private SequenceOverflowPolicy overflowPolicy = SequenceOverflowPolicy.PARK;
+    /**
+     * future ticks could be borrowed with policy BORROW, explicit times of strategy PACKED and STRIPED more than this ahead of the clock go to backfillSequence
+     */
+    @Setter
+    private long maxBorrowTicks = 10;
+    /**
+     * what to do when the clock goes backwards
+     */
+    @Setter
+    private ClockRegressionPolicy clockRegressionPolicy = ClockRegressionPolicy.LAST_TICK;
+    /**
+     * max regression could be waited with policy WAIT
+     */
+    @Setter
+    private long maxClockRegressionWaitMillis = 10;
+    /**
+     * clock of current-time IDs
+     */
+    private TimeSource timeSource = TimeSource.SYSTEM;
+    /**
+     * assigner of nodeId given as -1, null if nodeId is fixed, node id is assigned again by it on {@link #restore()}
+     */
+    @Setter
+    private WorkerIdAssigner workerIdAssigner;
+    /**
+     * highest time in current unit read for current-time IDs, only raised by CAS in {@link #clockMoved}
+     */
+    private volatile long lastClockTime = Long.MIN_VALUE;
+    private final SnowFlakeIdStats stats = new SnowFlakeIdStats();
+    /**
+     * sequence of each tenant for genIdForTenant(int), created on first use
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile TenantTickSequence tenantSequence;
+    /**
+     * low bits of node reserved as shard slot, see {@link #setBitsOfShard(int)}
+     */
+    private long bitsOfShard;
+    private long maxShardNum;
+    /**
+     * sequence of each shard but 0 for genIdForShard(int), created on first use, shard 0 is the sequence of genId()
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile TenantTickSequence shardSequence;
 
     /**
      * using loading-cache to store sequence
      */
     public SnowFlakeIdHelper(LocalDateTime startTime, TimeUnit unit, long tenantId, long nodeId, long bitsOfTime, long bitsOfTenant, long bitsOfNode, long bitsOfAutoincrement, int maximumSize, boolean recordStats) {
-        this.offset = OffsetDateTime.now().getOffset();
-        Instant instant = startTime.toInstant(this.offset);
-        this.startTime = unit.convert(instant.getEpochSecond() * 1_000_000_000L + instant.getNano(), TimeUnit.NANOSECONDS);
-        this.unit = unit;
-        this.bitsOfTime = bitsOfTime;
-        this.bitsOfTenant = bitsOfTenant;
-        this.bitsOfNode = bitsOfNode;
-        this.bitsOfAutoincrement = bitsOfAutoincrement;
+        this(startTime, unit, tenantId, nodeId, new IdLayout(bitsOfTime, bitsOfTenant, bitsOfNode, bitsOfAutoincrement), "CACHE", 0, null, maximumSize, recordStats, 0);
+    }
 
-        this.maxTimeNum = -1L ^ (-1L << bitsOfTime);
-        this.maxTenantNum = -1L ^ (-1L << bitsOfTenant);
-        this.maxNodeNum = -1L ^ (-1L << bitsOfNode);
-        this.maxAutoincrementNum = -1L ^ (-1L << bitsOfAutoincrement);
+    /**
+     * using recyclable long shared by all unit of time
+     *
+     * @deprecated the recyclable long is shared by all unit of time, once it recycles to 0 the unit of time is used up
+     * and handled by overflowPolicy, so it waits for the clock far more often than the PACKED one of bits, use that one
+     */
+    @Deprecated
+    public SnowFlakeIdHelper(LocalDateTime startTime, TimeUnit unit, long tenantId, long nodeId, long bitsOfTime, long bitsOfTenant, long bitsOfNode, long bitsOfAutoincrement, int recyclableLongMaxTry) {
+        this(startTime, unit, tenantId, nodeId, new IdLayout(bitsOfTime, bitsOfTenant, bitsOfNode, bitsOfAutoincrement), "RECYCLABLE", 0, null, 0, false, recyclableLongMaxTry);
+    }
 
-        this.tenantId = tenantId & this.maxTenantNum;
-        this.nodeId = genNodeId(nodeId, this.maxNodeNum);
+    /**
+     * using packed tick and sequence in one atomic word for current-time IDs,
+     * explicit times before this helper was created go to a window of backfill ticks
+     */
+    public SnowFlakeIdHelper(LocalDateTime startTime, TimeUnit unit, long tenantId, long nodeId, long bitsOfTime, long bitsOfTenant, long bitsOfNode, long bitsOfAutoincrement) {
+        this(startTime, unit, tenantId, nodeId, bitsOfTime, bitsOfTenant, bitsOfNode, bitsOfAutoincrement, 1, DEFAULT_BACKFILL_SIZE);
+    }
 
-        this.leftOfNode = bitsOfAutoincrement;
-        this.leftOfTenant = this.leftOfNode + bitsOfNode;
-        this.leftOfTime = this.leftOfTenant + bitsOfTenant;
+    /**
+     * using packed tick and sequence for current-time IDs, split into stripes if stripes is not 1,
+     * explicit times before this helper was created go to a window of maximumSize backfill ticks
+     *
+     * @param stripes     1 means one atomic word, 0 means stripes of available processors, see {@link StripedTickSequence}
+     * @param maximumSize ticks in the window of explicit times before this helper was created, see {@link BackfillTickSequence}
+     */
+    public SnowFlakeIdHelper(LocalDateTime startTime, TimeUnit unit, long tenantId, long nodeId, long bitsOfTime, long bitsOfTenant, long bitsOfNode, long bitsOfAutoincrement, int stripes, int maximumSize) {
+        this(startTime, unit, tenantId, nodeId, new IdLayout(bitsOfTime, bitsOfTenant, bitsOfNode, bitsOfAutoincrement), stripes, maximumSize);
+    }
 
-        this.sequence = null;
-        Caffeine<Object, Object> caffeine = Caffeine.newBuilder().expireAfterWrite(maximumSize, unit).maximumSize(maximumSize);
-        if (recordStats) {
-            caffeine.recordStats();
-        }
-        this.sequenceCache = caffeine.build();
+    /**
+     * using packed tick and sequence for current-time IDs with layout, the same as the one of bits
+     */
+    public SnowFlakeIdHelper(LocalDateTime startTime, TimeUnit unit, long tenantId, long nodeId, IdLayout layout, int stripes, int maximumSize) {
+        this(startTime, unit, tenantId, nodeId, layout, "PACKED", stripes, null, maximumSize, false, 0);
     }
 
-    public SnowFlakeIdHelper(LocalDateTime startTime, TimeUnit unit, long tenantId, long nodeId, long bitsOfTime, long bitsOfTenant, long bitsOfNode, long bitsOfAutoincrement, int recyclableLongMaxTry) {
+    /**
+     * using packedSequence for current-time IDs with layout, such as a {@link MappedTickSequence} shared by processes on one host,
+     * only IDs issued on packedSequence are allowed: genId(), batches, and explicit times it has not moved past since this helper was created;
+     * genIdForTenant() of other tenants, genIdForShard() of shards but 0 and other explicit times throw IllegalStateException
+     */
+    public SnowFlakeIdHelper(LocalDateTime startTime, TimeUnit unit, long tenantId, long nodeId, IdLayout layout, TickSequence packedSequence, int maximumSize) {
+        this(startTime, unit, tenantId, nodeId, layout, "PACKED", 1, packedSequence, maximumSize, false, 0);
+    }
+
+    /**
+     * @param strategy CACHE with maximumSize and recordStats, RECYCLABLE with recyclableLongMaxTry,
+     *                 or PACKED with packedSequence(or stripes if null) and maximumSize
+     */
+    private SnowFlakeIdHelper(LocalDateTime startTime, TimeUnit unit, long tenantId, long nodeId, IdLayout layout,
+                              String strategy, int stripes, TickSequence packedSequence, int maximumSize, boolean recordStats, int recyclableLongMaxTry) {
         this.offset = OffsetDateTime.now().getOffset();
         Instant instant = startTime.toInstant(this.offset);
         this.startTime = unit.convert(instant.getEpochSecond() * 1_000_000_000L + instant.getNano(), TimeUnit.NANOSECONDS);
         this.unit = unit;
-        this.bitsOfTime = bitsOfTime;
-        this.bitsOfTenant = bitsOfTenant;
-        this.bitsOfNode = bitsOfNode;
-        this.bitsOfAutoincrement = bitsOfAutoincrement;
+        this.layout = layout;
+        this.bitsOfTime = layout.getBitsOfTime();
+        this.bitsOfTenant = layout.getBitsOfTenant();
+        this.bitsOfNode = layout.getBitsOfNode();
+        this.bitsOfAutoincrement = layout.getBitsOfAutoincrement();
 
-        this.maxTimeNum = -1L ^ (-1L << bitsOfTime);
-        this.maxTenantNum = -1L ^ (-1L << bitsOfTenant);
-        this.maxNodeNum = -1L ^ (-1L << bitsOfNode);
-        this.maxAutoincrementNum = -1L ^ (-1L << bitsOfAutoincrement);
+        this.maxTimeNum = layout.getMaxTimeNum();
+        this.maxTenantNum = layout.getMaxTenantNum();
+        this.maxNodeNum = layout.getMaxNodeNum();
+        this.maxAutoincrementNum = layout.getMaxAutoincrementNum();
 
         this.tenantId = tenantId & this.maxTenantNum;
         this.nodeId = genNodeId(nodeId, this.maxNodeNum);
 
-        this.leftOfNode = bitsOfAutoincrement;
-        this.leftOfTenant = this.leftOfNode + bitsOfNode;
-        this.leftOfTime = this.leftOfTenant + bitsOfTenant;
+        this.leftOfNode = layout.getLeftOfNode();
+        this.leftOfTenant = layout.getLeftOfTenant();
+        this.leftOfTime = layout.getLeftOfTime();
+        this.codec = layout.codec(this.tenantId, this.nodeId);
+        this.sharedSequence = null != packedSequence;
 
-        this.sequence = new RecyclableAtomicLong(this.maxAutoincrementNum, recyclableLongMaxTry);
-        this.sequenceCache = null;
+        switch (strategy) {
+            case "CACHE" -> {
+                this.sequence = null;
+                this.packedSequence = null;
+                this.backfillSequence = null;
+                this.packedSince = Long.MAX_VALUE;
+                Caffeine<Long, AtomicLong> caffeine = Caffeine.newBuilder().expireAfterWrite(maximumSize, unit).maximumSize(maximumSize)
+                        .evictionListener((Long time, AtomicLong sequence, RemovalCause cause) -> SequenceCacheEvent.commit(cause.name(), time, sequence.get()));
+                if (recordStats) {
+                    caffeine.recordStats();
+                }
+                this.sequenceCache = caffeine.build();
+            }
+            case "RECYCLABLE" -> {
+                this.sequence = new RecyclableAtomicLong(this.maxAutoincrementNum, recyclableLongMaxTry);
+                this.sequenceCache = null;
+                this.packedSequence = null;
+                this.backfillSequence = null;
+                this.packedSince = Long.MAX_VALUE;
+            }
+            default -> {
+                this.sequence = null;
+                this.packedSince = currentTime();
+                if (null != packedSequence) {
+                    this.packedSequence = packedSequence;
+                } else if (1 == stripes) {
+                    this.packedSequence = new PackedAtomicLong(bitsOfAutoincrement);
+                } else {
+                    this.packedSequence = new StripedTickSequence(bitsOfAutoincrement, stripes);
+                }
+                this.sequenceCache = null;
+                this.backfillSequence = new BackfillTickSequence(bitsOfAutoincrement, maximumSize);
+                if (this.packedSequence instanceof PackedAtomicLong packed) {
+                    packed.retireTo(this.backfillSequence);
+                } else if (this.packedSequence instanceof StripedTickSequence striped) {
+                    striped.retireTo(this.backfillSequence);
+                }
+            }
+        }
     }
 
     private long genNodeId(long nodeId, long maxNodeNum) {
         if (-1 != nodeId) {
             return nodeId & maxNodeNum;
         }
-        //use last bitsOfNode of long value of ipv4 as nodeId
-        String ipv4 = NetworkUtils.getLocalIpV4();
-        if (null != ipv4) {
-            nodeId = NetworkUtils.ipV4ToLong(ipv4);
-        } else {
-            //fallback if we can't get ipv4
-            nodeId = ThreadLocalRandom.current().nextLong(maxNodeNum + 1);
+        this.workerIdAssigner = WorkerIdAssigner.IP;
+        return WorkerIdAssigner.IP.assign(maxNodeNum) & maxNodeNum;
+    }
+
+    /**
+     * the JVM is restored from a checkpoint(such as CRaC), call it before generating IDs again:
+     * node id is assigned again by workerIdAssigner, so copies restored from one checkpoint don't share the node id of it,
+     * and the last tick of the checkpoint is used up whatever the node id is, so IDs after restoring start on a later tick
+     * and a copy given the node id of the checkpoint never issues an ID issued before it;
+     * ticks older than it continue as they were in backfillSequence
+     * <p>
+     * a fixed node id is kept, copies restored from one checkpoint with it issue the same IDs;
+     * sequences of strategy RECYCLABLE and a shared packedSequence such as MappedTickSequence are kept
+     *
+     * @return node id after restoring
+     */
+    public synchronized long restore() {
+        if (null != workerIdAssigner) {
+            long restored = (workerIdAssigner.assign(maxNodeNum >>> bitsOfShard) & (maxNodeNum >>> bitsOfShard)) << bitsOfShard;
+            this.codec = layout.codec(tenantId, restored);
+            this.nodeId = restored;
+        }
+        sealTicks();
+        return nodeId;
+    }
+
+    /**
+     * use up the last tick of every sequence kept by this helper, every cached tick of strategy CACHE
+     */
+    private void sealTicks() {
+        if (null != sequenceCache) {
+            sequenceCache.asMap().values().forEach(cached -> cached.accumulateAndGet(maxAutoincrementNum + 1, Math::max));
+        }
+        if (packedSequence instanceof PackedAtomicLong packed) {
+            packed.seal();
+        } else if (packedSequence instanceof StripedTickSequence striped) {
+            striped.seal();
+        }
+        if (null != tenantSequence) {
+            tenantSequence.seal();
+        }
+        if (null != shardSequence) {
+            shardSequence.seal();
         }
-        return nodeId & maxNodeNum;
     }
 
     /**
      * get sequence by unitTime in current unit
      */
     private long getSequence(long unitTime) {
-        if (null == sequenceCache) {
-            return sequence.getAndIncrementWithRecycle();
+        if (null != sequence) {
+            return sequence.getAndIncrementWithRecycle(unitTime);
         }
         return sequenceCache.get(unitTime, k -> loadSequence(k)).getAndIncrement();
     }
 
+    /**
+     * reserve a range of sequence of unitTime in loading-cache in one atomic step
+     *
+     * @return first sequence of the range, greater than maxAutoincrementNum if the sequence of unitTime is used up
+     */
+    private long getSequences(long unitTime, long count) {
+        return sequenceCache.get(unitTime, k -> loadSequence(k)).getAndAdd(count);
+    }
+
     /**
      * load sequence cache with initial value 0
      */
     private AtomicLong loadSequence(long unitTime) {
+        SequenceCacheEvent.commit("LOAD", unitTime, 0);
         return new AtomicLong(0);
     }
 
+    /**
+     * replace clock of current-time IDs, set it before generating any ID
+     */
+    public void setTimeSource(TimeSource timeSource) {
+        this.timeSource = timeSource;
+        this.lastClockTime = Long.MIN_VALUE;
+        if (null != packedSequence) {
+            this.packedSince = currentTime();
+        }
+    }
+
+    /**
+     * current time in current unit
+     */
+    private long currentTime() {
+        return timeSource.currentTime(unit);
+    }
+
+    /**
+     * current time in current unit for current-time IDs, handle clock going backwards by clockRegressionPolicy
+     * <p>
+     * lastClockTime is read before the clock, so a smaller clock is a real regression rather than a race
+     */
+    private long clockTime() {
+        long last = lastClockTime;
+        long now = currentTime();
+        if (now != last) {
+            return clockMoved(now, last);
+        }
+        return now;
+    }
+
+    /**
+     * the clock moved from last to now, raise lastClockTime to now by CAS so a racing thread never lowers it
+     */
+    private long clockMoved(long now, long last) {
+        if (now < last) {
+            return clockRegressed(now, last);
+        }
+        while (now > last && !LAST_CLOCK_TIME.compareAndSet(this, last, now)) {
+            last = lastClockTime;
+        }
+        return now;
+    }
+
+    /**
+     * handle clock going backwards from last to now by clockRegressionPolicy
+     * <p>
+     * lastClockTime stays at last until the clock catches up, so calls of one regression are counted once
+     */
+    private long clockRegressed(long now, long last) {
+        if (stats.isNewAnomaly(SnowFlakeIdAnomaly.Type.CLOCK_REGRESSION, last)) {
+            stats.recordClockRegression(last - now);
+            stats.recordAnomaly(SnowFlakeIdAnomaly.Type.CLOCK_REGRESSION, last, "clock moved backwards " + (last - now) + " " + unit + " handled by " + clockRegressionPolicy);
+        }
+        ClockRegressionEvent event = new ClockRegressionEvent();
+        event.begin();
+        long regression = last - now;
+        if (ClockRegressionPolicy.LAST_TICK == clockRegressionPolicy) {
+            commit(event, regression, "LAST_TICK");
+            return last;
+        }
+        if (ClockRegressionPolicy.WAIT == clockRegressionPolicy && unit.toMillis(last - now) <= maxClockRegressionWaitMillis) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxClockRegressionWaitMillis);
+            while (now < last && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(Math.min(unit.toNanos(last - now), deadline - System.nanoTime()));
+                now = currentTime();
+            }
+            if (now >= last) {
+                commit(event, regression, "WAITED");
+                return now;
+            }
+        }
+        commit(event, regression, "REJECTED");
+        throw new ClockMovedBackwardsException("clock moved backwards " + (last - now) + " " + unit + " rejected by " + clockRegressionPolicy);
+    }
+
+    /**
+     * commit JFR event of a clock regression if it is enabled
+     */
+    private void commit(ClockRegressionEvent event, long regression, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.policy = clockRegressionPolicy.name();
+            event.unit = unit.name();
+            event.regression = regression;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    /**
+     * issue packed tick and sequence, handle used up tick by overflowPolicy
+     */
+    private long nextPacked(long time) {
+        return nextPacked(time, 1);
+    }
+
+    /**
+     * reserve packed range of tick and sequence, handle used up tick by overflowPolicy
+     */
+    private long nextPacked(long time, long count) {
+        long requested = time;
+        SequenceWaitEvent wait = null;
+        for (int attempts = 0; ; attempts++) {
+            long packed = packedSequence.getAndAddWithTick(time - startTime, count);
+            if (!TickSequence.isExhausted(packed)) {
+                SequenceWaitEvent.end(wait, startTime + packedSequence.tickOf(packed), attempts);
+                return packed;
+            }
+            if (0 == attempts) {
+                wait = SequenceWaitEvent.begin(overflowPolicy, unit, requested);
+            }
+            time = exhausted(startTime + TickSequence.exhaustedTick(packed), requested, false, attempts);
+        }
+    }
+
+    /**
+     * handle used up sequence by overflowPolicy
+     *
+     * @param tried     time in current unit whose sequence is used up
+     * @param requested time in current unit requested by caller
+     * @param explicit  time is given by caller, it can't wait for the clock if it is in the past or more than maxBorrowTicks ahead
+     * @param attempts  times already tried
+     * @return time in current unit to try next, an explicit time is tried again rather than moved to the clock
+     */
+    private long exhausted(long tried, long requested, boolean explicit, int attempts) {
+        if (0 == attempts) {
+            stats.exhausted.increment();
+        }
+        long now = currentTime();
+        boolean waitable = !explicit || (requested >= now && requested <= now + maxBorrowTicks);
+        if (SequenceOverflowPolicy.BORROW == overflowPolicy) {
+            long base = waitable ? now : requested;
+            if (tried < base) {
+                return base;
+            }
+            if (tried < base + maxBorrowTicks) {
+                if (tried == base) {
+                    stats.borrows.increment();
+                }
+                return tried + 1;
+            }
+        }
+        if (!waitable || SequenceOverflowPolicy.FAIL == overflowPolicy) {
+            stats.failures.increment();
+            if (stats.isNewAnomaly(SnowFlakeIdAnomaly.Type.SEQUENCE_FAILURE, tried)) {
+                stats.recordAnomaly(SnowFlakeIdAnomaly.Type.SEQUENCE_FAILURE, tried, "sequence of " + tried + " " + unit + " is used up by " + overflowPolicy);
+            }
+            throw new SequenceExhaustedException("sequence of " + tried + " " + unit + " is used up by " + overflowPolicy);
+        }
+        if (SequenceOverflowPolicy.SPIN == overflowPolicy || attempts < PARK_AFTER_SPINS) {
+            if (0 == attempts) {
+                stats.spins.increment();
+            }
+            Thread.onSpinWait();
+        } else {
+            stats.parks.increment();
+            LockSupport.parkNanos(Math.min(1_000L << Math.min(attempts - PARK_AFTER_SPINS, 20), unit.toNanos(1)));
+        }
+        return explicit ? requested : currentTime();
+    }
+
+    /**
+     * sequences of what are kept per process, they may collide with other processes sharing packedSequence
+     *
+     * @throws IllegalStateException packedSequence is shared
+     */
+    private void checkPerProcess(String what) {
+        if (sharedSequence) {
+            throw new IllegalStateException(what + " is issued per process, processes sharing packedSequence(sharedStateFile) could issue the same IDs");
+        }
+    }
+
+    /**
+     * generate ID with packed tick and sequence
+     */
+    private long genPackedId(long packed) {
+        return codec.encode(packedSequence.tickOf(packed), packedSequence.sequenceOf(packed));
+    }
+
+    /**
+     * generate next ID with special time in current unit,
+     * times since packedSince up to maxBorrowTicks ahead of the clock are issued on their own tick of packedSequence so they never collide with genId(),
+     * other explicit times of strategy PACKED and STRIPED, and ticks packedSequence has moved past, are issued by backfillSequence,
+     * which continues after the IDs packedSequence issued on them, and packedSequence starts a tick after the IDs issued there ahead of it
+     *
+     * @param explicit time is given by caller rather than read from the clock
+     * @throws IllegalStateException explicit time goes to backfillSequence of a shared packedSequence
+     */
+    private long genIdInUnit(long time, boolean explicit) {
+        if (explicit && null != packedSequence && time > currentTime() + maxBorrowTicks) {
+            checkPerProcess("genId(time) more than maxBorrowTicks ahead of the clock");
+        }
+        if (explicit && time < packedSince) {
+            checkPerProcess("genId(time) before startup");
+        }
+        stats.issued.increment();
+        if (null != packedSequence && !explicit) {
+            return genPackedId(nextPacked(time));
+        }
+        long requested = time;
+        if (null != packedSequence) {
+            SequenceWaitEvent wait = null;
+            for (int attempts = 0; ; attempts++) {
+                long now = currentTime();
+                TickSequence sequence = backfillSequence;
+                long packed = time > now + maxBorrowTicks ? backfillSequence.getAndAddAhead(time - startTime, 1, now - startTime) : TickSequence.STALE;
+                if (TickSequence.STALE == packed && time >= packedSince) {
+                    sequence = packedSequence;
+                    packed = packedSequence.getAndAddOnTick(time - startTime, 1);
+                }
+                if (TickSequence.STALE == packed) {
+                    checkPerProcess("genId(time) of a time the shared sequence has moved past");
+                    sequence = backfillSequence;
+                    packed = backfillSequence.getAndIncrementWithTick(time - startTime);
+                }
+                if (!TickSequence.isExhausted(packed)) {
+                    SequenceWaitEvent.end(wait, startTime + sequence.tickOf(packed), attempts);
+                    return codec.encode(sequence.tickOf(packed), sequence.sequenceOf(packed));
+                }
+                if (0 == attempts) {
+                    wait = SequenceWaitEvent.begin(overflowPolicy, unit, requested);
+                }
+                time = exhausted(startTime + TickSequence.exhaustedTick(packed), requested, true, attempts);
+            }
+        }
+        SequenceWaitEvent wait = null;
+        for (int attempts = 0; ; attempts++) {
+            long sequence = getSequence(time);
+            if (sequence <= maxAutoincrementNum) {
+                SequenceWaitEvent.end(wait, time, attempts);
+                return genId(time, sequence);
+            }
+            if (0 == attempts) {
+                wait = SequenceWaitEvent.begin(overflowPolicy, unit, requested);
+            }
+            time = exhausted(time, requested, explicit, attempts);
+        }
+    }
+
     /**
      * generate next ID in current timestamp
      */
     public long genId() {
-        return genId(System.currentTimeMillis());
+        return genIdInUnit(clockTime(), false);
+    }
+
+    /**
+     * generate next ID of tenantId in current timestamp, each tenant has its own sequence,
+     * so a hot tenant never uses up the sequence of others, tenantId of this helper shares the sequence of genId()
+     *
+     * @throws IndexOutOfBoundsException tenantId is not from 0 to maxTenantNum
+     * @throws IllegalStateException     packedSequence is shared by processes, see isSharedSequence()
+     */
+    public long genIdForTenant(int tenantId) {
+        if (tenantId == this.tenantId) {
+            return genId();
+        }
+        Objects.checkIndex(tenantId, Math.min(maxTenantNum + 1, Integer.MAX_VALUE));
+        TenantTickSequence tenants = tenantSequence();
+        stats.issued.increment();
+        long time = clockTime();
+        long requested = time;
+        SequenceWaitEvent wait = null;
+        for (int attempts = 0; ; attempts++) {
+            long packed = tenants.getAndIncrementWithTick(tenantId, time - startTime);
+            if (!TickSequence.isExhausted(packed)) {
+                SequenceWaitEvent.end(wait, startTime + tenants.tickOf(packed), attempts);
+                return (tenants.tickOf(packed) << leftOfTime)
+                        | ((long) tenantId << leftOfTenant)
+                        | (nodeId << leftOfNode)
+                        | tenants.sequenceOf(packed);
+            }
+            if (0 == attempts) {
+                wait = SequenceWaitEvent.begin(overflowPolicy, unit, requested);
+            }
+            time = exhausted(startTime + TickSequence.exhaustedTick(packed), requested, false, attempts);
+        }
+    }
+
+    private TenantTickSequence tenantSequence() {
+        checkPerProcess("genIdForTenant(int) of other tenants");
+        TenantTickSequence tenants = tenantSequence;
+        if (null == tenants) {
+            synchronized (this) {
+                tenants = tenantSequence;
+                if (null == tenants) {
+                    tenantSequence = tenants = new TenantTickSequence(bitsOfAutoincrement, (int) Math.min(maxTenantNum + 1, Integer.MAX_VALUE));
+                }
+            }
+        }
+        return tenants;
+    }
+
+    /**
+     * reserve low bits of node as shard slot: node = (nodeId &lt;&lt; bitsOfShard) | shard, set it before generating any ID,
+     * nodeId is kept and getNodeId() is the node of shard 0, so nodeId should be at most maxNodeNum >>> bitsOfShard
+     * <p>
+     * IDs of a shard are generated by {@link #genIdForShard(int)} and routed by {@link #shardOf(long)} with a shift and a mask,
+     * shards but 0 have their own padded sequence so a hot shard never uses up the sequence of others,
+     * IDs of genId() and others are of shard 0
+     *
+     * @throws IllegalArgumentException bitsOfShard is negative or over bitsOfNode, or nodeId doesn't fit in the rest bits of node
+     */
+    public synchronized void setBitsOfShard(int bitsOfShard) {
+        long node = nodeId >>> this.bitsOfShard;
+        if (bitsOfShard < 0 || bitsOfShard > bitsOfNode || node > maxNodeNum >>> bitsOfShard) {
+            throw new IllegalArgumentException("bitsOfShard " + bitsOfShard + " out of bitsOfNode " + bitsOfNode + " with nodeId " + node);
+        }
+        this.bitsOfShard = bitsOfShard;
+        this.maxShardNum = -1L ^ (-1L << bitsOfShard);
+        this.shardSequence = null;
+        this.codec = layout.codec(tenantId, node << bitsOfShard);
+        this.nodeId = node << bitsOfShard;
+    }
+
+    /**
+     * shard of an ID, only a shift and a mask
+     */
+    public int shardOf(long id) {
+        return (int) ((id >>> leftOfNode) & maxShardNum);
+    }
+
+    /**
+     * generate next ID of shard in current timestamp, shard 0 is the same as genId()
+     *
+     * @throws IndexOutOfBoundsException shard is not from 0 to maxShardNum
+     * @throws IllegalStateException     packedSequence is shared by processes, see isSharedSequence()
+     */
+    public long genIdForShard(int shard) {
+        if (0 == shard) {
+            return genId();
+        }
+        TenantTickSequence shards = shardSequence(shard);
+        stats.issued.increment();
+        long packed = nextOfShard(shards, shard, clockTime(), 1);
+        return shardId(shards, shard, packed);
+    }
+
+    /**
+     * generate n IDs of shard in current timestamp
+     */
+    public long[] genIdsForShard(int shard, int n) {
+        long[] ids = new long[n];
+        fillForShard(shard, ids, 0, n);
+        return ids;
+    }
+
+    /**
+     * generate IDs of shard in current timestamp into dst[off, off + len), each range of one tick is reserved in one atomic step,
+     * shard 0 is the same as {@link #fill(long[], int, int)}
+     */
+    public void fillForShard(int shard, long[] dst, int off, int len) {
+        if (0 == shard) {
+            fill(dst, off, len);
+            return;
+        }
+        Objects.checkFromIndexSize(off, len, dst.length);
+        TenantTickSequence shards = shardSequence(shard);
+        int end = off + len;
+        while (off < end) {
+            long packed = nextOfShard(shards, shard, clockTime(), end - off);
+            long range = shards.rangeOf(packed, end - off);
+            stats.issued.add(range);
+            long id = shardId(shards, shard, packed);
+            for (long i = 0; i < range; i++) {
+                dst[off++] = id + i;
+            }
+        }
+    }
+
+    private long nextOfShard(TenantTickSequence shards, int shard, long time, long count) {
+        long requested = time;
+        SequenceWaitEvent wait = null;
+        for (int attempts = 0; ; attempts++) {
+            long packed = shards.getAndAddWithTick(shard, time - startTime, count);
+            if (!TickSequence.isExhausted(packed)) {
+                SequenceWaitEvent.end(wait, startTime + shards.tickOf(packed), attempts);
+                return packed;
+            }
+            if (0 == attempts) {
+                wait = SequenceWaitEvent.begin(overflowPolicy, unit, requested);
+            }
+            time = exhausted(startTime + TickSequence.exhaustedTick(packed), requested, false, attempts);
+        }
+    }
+
+    private long shardId(TenantTickSequence shards, int shard, long packed) {
+        return (shards.tickOf(packed) << leftOfTime)
+                | (tenantId << leftOfTenant)
+                | ((nodeId | shard) << leftOfNode)
+                | shards.sequenceOf(packed);
+    }
+
+    private TenantTickSequence shardSequence(int shard) {
+        Objects.checkIndex(shard, maxShardNum + 1);
+        checkPerProcess("genIdForShard(int) of shards but 0");
+        TenantTickSequence shards = shardSequence;
+        if (null == shards) {
+            synchronized (this) {
+                shards = shardSequence;
+                if (null == shards) {
+                    shardSequence = shards = new TenantTickSequence(bitsOfAutoincrement, (int) (maxShardNum + 1));
+                }
+            }
+        }
+        return shards;
     }
 
     /**
      * generate next ID with special time in millis
      *
      * @param timeInMillis time in milliseconds since epoch in local timezone
+     * @throws IllegalStateException time is not on a shared packedSequence, see isSharedSequence()
      */
     public long genId(long timeInMillis) {
-        long time = unit.convert(timeInMillis, TimeUnit.MILLISECONDS);
-        long sequence = getSequence(time);
-        return genId(time, sequence);
+        return genIdInUnit(unit.convert(timeInMillis, TimeUnit.MILLISECONDS), true);
     }
 
     /**
      * generate next ID with special local date time
+     *
+     * @throws IllegalStateException time is not on a shared packedSequence, see isSharedSequence()
      */
     public long genId(LocalDateTime localDateTime) {
-        Instant instant = localDateTime.toInstant(offset);
-        return genId(instant.getEpochSecond() * 1_000_000_000L + instant.getNano(), TimeUnit.NANOSECONDS);
+        return genIdInUnit(timeOf(localDateTime), true);
+    }
+
+    /**
+     * time of localDateTime in current unit
+     */
+    private long timeOf(LocalDateTime localDateTime) {
+        return unit.convert(localDateTime.toEpochSecond(offset), TimeUnit.SECONDS)
+                + unit.convert(localDateTime.getNano(), TimeUnit.NANOSECONDS);
     }
 
     /**
      * generate next ID with special time and time unit
+     *
+     * @throws IllegalStateException time is not on a shared packedSequence, see isSharedSequence()
      */
     public long genId(long time, TimeUnit unit) {
-        time = this.unit.convert(time, unit);
-        long sequence = getSequence(time);
-        return genId(time, sequence);
+        return genIdInUnit(this.unit.convert(time, unit), true);
     }
 
     /**
      * generate next ID with special time and sequence
      */
     private long genId(long time, long sequence) {
-        return ((time - startTime) << leftOfTime)
-                | (tenantId << leftOfTenant)
-                | (nodeId << leftOfNode)
-                | (sequence & maxAutoincrementNum);
+        return codec.encode(time - startTime, sequence);
+    }
+
+    /**
+     * generate n IDs in current timestamp
+     */
+    public long[] genIds(int n) {
+        long[] ids = new long[n];
+        fill(ids, 0, n);
+        return ids;
+    }
+
+    /**
+     * generate IDs in current timestamp into dst[off, off + len),
+     * strategy PACKED, STRIPED and CACHE reserve each range of one tick in one atomic step, RECYCLABLE generates one by one
+     */
+    public void fill(long[] dst, int off, int len) {
+        Objects.checkFromIndexSize(off, len, dst.length);
+        int end = off + len;
+        if (null != sequenceCache) {
+            fillCached(dst, off, end);
+            return;
+        }
+        if (null == packedSequence) {
+            for (int i = off; i < end; i++) {
+                dst[i] = genId();
+            }
+            return;
+        }
+        while (off < end) {
+            long packed = nextPacked(clockTime(), end - off);
+            long range = packedSequence.rangeOf(packed, end - off);
+            stats.issued.add(range);
+            long id = genPackedId(packed);
+            for (long i = 0; i < range; i++) {
+                dst[off++] = id + i;
+            }
+        }
+    }
+
+    /**
+     * fill dst[off, end) by ranges of loading-cache, handle used up tick by overflowPolicy
+     */
+    private void fillCached(long[] dst, int off, int end) {
+        while (off < end) {
+            long time = clockTime();
+            long requested = time;
+            SequenceWaitEvent wait = null;
+            for (int attempts = 0; ; attempts++) {
+                long first = getSequences(time, end - off);
+                if (first <= maxAutoincrementNum) {
+                    SequenceWaitEvent.end(wait, time, attempts);
+                    long range = Math.min(end - off, maxAutoincrementNum - first + 1);
+                    stats.issued.add(range);
+                    long id = genId(time, first);
+                    for (long i = 0; i < range; i++) {
+                        dst[off++] = id + i;
+                    }
+                    break;
+                }
+                if (0 == attempts) {
+                    wait = SequenceWaitEvent.begin(overflowPolicy, unit, requested);
+                }
+                time = exhausted(time, requested, false, attempts);
+            }
+        }
+    }
+
+    /**
+     * generate IDs in current timestamp into dst[off, off + len) without waiting for the next tick
+     *
+     * @return count of IDs generated, less than len when the sequence of current tick is used up
+     */
+    public int tryFill(long[] dst, int off, int len) {
+        Objects.checkFromIndexSize(off, len, dst.length);
+        long time = clockTime();
+        int filled = 0;
+        if (null != packedSequence) {
+            while (filled < len) {
+                long packed = packedSequence.getAndAddWithTick(time - startTime, len - filled);
+                if (TickSequence.isExhausted(packed)) {
+                    break;
+                }
+                long range = packedSequence.rangeOf(packed, len - filled);
+                long id = genPackedId(packed);
+                for (long i = 0; i < range; i++) {
+                    dst[off + filled++] = id + i;
+                }
+            }
+        } else if (null != sequenceCache) {
+            long first = getSequences(time, len);
+            if (first <= maxAutoincrementNum) {
+                long id = genId(time, first);
+                while (filled < len && first + filled <= maxAutoincrementNum) {
+                    dst[off + filled] = id + filled;
+                    filled++;
+                }
+            }
+        } else {
+            while (filled < len) {
+                long sequence = getSequence(time);
+                if (sequence > maxAutoincrementNum) {
+                    break;
+                }
+                dst[off + filled++] = genId(time, sequence);
+            }
+        }
+        stats.issued.add(filled);
+        if (filled < len) {
+            stats.exhausted.increment();
+        }
+        return filled;
+    }
+
+    /**
+     * nanos to wait before trying again after {@link #tryFill} used up current tick, for callers not blocking a thread
+     *
+     * @throws SequenceExhaustedException overflowPolicy is FAIL
+     */
+    long nanosToRetry() {
+        if (SequenceOverflowPolicy.FAIL == overflowPolicy) {
+            stats.failures.increment();
+            long now = currentTime();
+            if (stats.isNewAnomaly(SnowFlakeIdAnomaly.Type.SEQUENCE_FAILURE, now)) {
+                stats.recordAnomaly(SnowFlakeIdAnomaly.Type.SEQUENCE_FAILURE, now, "sequence of " + now + " " + unit + " is used up by " + overflowPolicy);
+            }
+            throw new SequenceExhaustedException("sequence of current " + unit + " is used up by " + overflowPolicy);
+        }
+        return unit.toNanos(1);
+    }
+
+    /**
+     * generate n IDs in current timestamp without blocking a thread,
+     * waiting for the next tick is scheduled by {@link CompletableFuture#delayedExecutor}
+     * <p>
+     * overflowPolicy FAIL completes exceptionally with {@link SequenceExhaustedException}, other policies wait for the next tick
+     */
+    public CompletableFuture<long[]> genIdsAsync(int n) {
+        CompletableFuture<long[]> future = new CompletableFuture<>();
+        fillAsync(new long[n], 0, future);
+        return future;
+    }
+
+    private void fillAsync(long[] ids, int off, CompletableFuture<long[]> future) {
+        long delay;
+        try {
+            off += tryFill(ids, off, ids.length - off);
+            if (off == ids.length) {
+                future.complete(ids);
+                return;
+            }
+            delay = nanosToRetry();
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return;
+        }
+        int next = off;
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> fillAsync(ids, next, future));
+    }
+
+    /**
+     * generate a stream of n IDs in current timestamp
+     */
+    public LongStream genIdStream(int n) {
+        return LongStream.of(genIds(n));
+    }
+
+    /**
+     * sequence left in current unit of time, strategy RECYCLABLE has no sequence per unit of time,
+     * it returns the sequence left before recycling to 0
+     */
+    public long getRemainingSequence() {
+        long time = currentTime();
+        if (null != packedSequence) {
+            return packedSequence.remainingOf(time - startTime);
+        }
+        if (null != sequence) {
+            return Math.max(0, sequence.threshold - sequence.get());
+        }
+        AtomicLong current = sequenceCache.getIfPresent(time);
+        return null == current ? maxAutoincrementNum + 1 : Math.max(0, maxAutoincrementNum + 1 - current.get());
     }
 
     /**
      * parse timestamp from ID
      */
     public long parseTimeInMillis(long id) {
-        return unit.toMillis(startTime + (id >>> leftOfTime));
+        return unit.toMillis(startTime + codec.tickOf(id));
     }
 
     /**
      * parse localdatetime from ID
      */
     public LocalDateTime parseTime(long id) {
-        long nanos = unit.toNanos(startTime + (id >>> leftOfTime));
+        long nanos = unit.toNanos(startTime + codec.tickOf(id));
         return LocalDateTime.ofEpochSecond(TimeUnit.SECONDS.convert(nanos, TimeUnit.NANOSECONDS),
                 (int) (nanos % 1_000_000_000), offset);
     }
 
+    /**
+     * smallest ID in the unit of time timeInMillis is in, no ID of a later time is less than it,
+     * 0 if it is before startTime
+     */
+    public long minIdAt(long timeInMillis) {
+        return boundAt(unit.convert(timeInMillis, TimeUnit.MILLISECONDS), -1, -1, false);
+    }
+
+    /**
+     * see {@link #minIdAt(long)}
+     */
+    public long minIdAt(LocalDateTime localDateTime) {
+        return boundAt(timeOf(localDateTime), -1, -1, false);
+    }
+
+    /**
+     * largest ID in the unit of time timeInMillis is in, no ID of an earlier time is greater than it,
+     * -1 if it is before startTime
+     */
+    public long maxIdAt(long timeInMillis) {
+        return boundAt(unit.convert(timeInMillis, TimeUnit.MILLISECONDS), -1, -1, true);
+    }
+
+    /**
+     * see {@link #maxIdAt(long)}
+     */
+    public long maxIdAt(LocalDateTime localDateTime) {
+        return boundAt(timeOf(localDateTime), -1, -1, true);
+    }
+
+    /**
+     * inclusive bounds of IDs of times from fromMillis to toMillis, in units of current unit:
+     * {minIdAt(fromMillis), maxIdAt(toMillis)}, empty(max less than min) if toMillis is before fromMillis or startTime,
+     * such as `id between ? and ?` scanning the primary key instead of an index of time
+     */
+    public long[] idRange(long fromMillis, long toMillis) {
+        return idRange(fromMillis, toMillis, -1, -1);
+    }
+
+    /**
+     * tightest inclusive bounds of IDs of tenantId and nodeId of times from fromMillis to toMillis,
+     * IDs of other tenants and nodes of ticks inside are still in the range, as the time is above them in an ID
+     *
+     * @param tenantId -1 means any tenant
+     * @param nodeId   -1 means any node
+     * @throws IllegalArgumentException tenantId or nodeId is out of range
+     */
+    public long[] idRange(long fromMillis, long toMillis, long tenantId, long nodeId) {
+        return new long[]{
+                boundAt(unit.convert(fromMillis, TimeUnit.MILLISECONDS), tenantId, nodeId, false),
+                boundAt(unit.convert(toMillis, TimeUnit.MILLISECONDS), tenantId, nodeId, true)
+        };
+    }
+
+    /**
+     * see {@link #idRange(long, long)}
+     */
+    public long[] idRange(LocalDateTime from, LocalDateTime to) {
+        return new long[]{boundAt(timeOf(from), -1, -1, false), boundAt(timeOf(to), -1, -1, true)};
+    }
+
+    /**
+     * smallest or largest ID of time in current unit, tenantId and nodeId of -1 mean any
+     */
+    private long boundAt(long time, long tenantId, long nodeId, boolean max) {
+        if ((-1 != tenantId && (tenantId < 0 || tenantId > maxTenantNum)) || (-1 != nodeId && (nodeId < 0 || nodeId > maxNodeNum))) {
+            throw new IllegalArgumentException("tenantId " + tenantId + " or nodeId " + nodeId + " out of range, max tenantId "
+                    + maxTenantNum + " and max nodeId " + maxNodeNum);
+        }
+        long tick = time - startTime;
+        if (tick < 0) {
+            if (max) {
+                return -1;
+            }
+            tick = 0;
+        }
+        long id = Math.min(tick, maxTimeNum) << leftOfTime;
+        id |= (-1 == tenantId ? (max ? maxTenantNum : 0) : tenantId) << leftOfTenant;
+        id |= (-1 == nodeId ? (max ? maxNodeNum : 0) : nodeId) << leftOfNode;
+        return max ? id | maxAutoincrementNum : id;
+    }
+
 }
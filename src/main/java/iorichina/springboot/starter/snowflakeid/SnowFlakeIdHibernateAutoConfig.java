@@ -0,0 +1,22 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@AutoConfigureAfter(SnowFlakeIdAutoConfig.class)
+@ConditionalOnClass(IdentifierGenerator.class)
+public class SnowFlakeIdHibernateAutoConfig {
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(SnowFlakeIdHelper.class)
+    public SnowFlakeIdHibernateHelpers snowFlakeIdHibernateHelpers(SnowFlakeIdHelper snowFlakeIdHelper, ObjectProvider<SnowFlakeIdGenerators> snowFlakeIdGenerators) {
+        return new SnowFlakeIdHibernateHelpers(snowFlakeIdHelper, snowFlakeIdGenerators.getIfAvailable());
+    }
+}
@@ -0,0 +1,46 @@
+package iorichina.springboot.starter.snowflakeid;
+
+/**
+ * helpers of the application context for {@link SnowFlakeIdIdentifierGenerator}, which is created by hibernate rather than spring,
+ * installed when created and removed when closed
+ */
+public class SnowFlakeIdHibernateHelpers implements AutoCloseable {
+    private static volatile SnowFlakeIdHibernateHelpers installed;
+
+    private final SnowFlakeIdHelper primary;
+    private final SnowFlakeIdGenerators generators;
+
+    /**
+     * @param generators null without `snowflakeid.generators`
+     */
+    public SnowFlakeIdHibernateHelpers(SnowFlakeIdHelper primary, SnowFlakeIdGenerators generators) {
+        this.primary = primary;
+        this.generators = generators;
+        installed = this;
+    }
+
+    /**
+     * @param generator name of `snowflakeid.generators.{name}`, empty means the primary helper
+     * @throws IllegalStateException no helpers installed
+     */
+    static SnowFlakeIdHelper get(String generator) {
+        SnowFlakeIdHibernateHelpers helpers = installed;
+        if (null == helpers) {
+            throw new IllegalStateException("no SnowFlakeIdHelper for @SnowFlakeId, SnowFlakeIdHibernateAutoConfig is not loaded");
+        }
+        if (generator.isEmpty()) {
+            return helpers.primary;
+        }
+        if (null == helpers.generators) {
+            throw new IllegalArgumentException("no snowflakeid generator named " + generator);
+        }
+        return helpers.generators.get(generator);
+    }
+
+    @Override
+    public void close() {
+        if (this == installed) {
+            installed = null;
+        }
+    }
+}
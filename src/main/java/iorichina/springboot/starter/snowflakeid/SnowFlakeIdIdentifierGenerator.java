@@ -0,0 +1,89 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Member;
+
+/**
+ * hibernate generator of {@link SnowFlakeId}, IDs are drawn from a pool of the session,
+ * refilled by {@link SnowFlakeIdHelper#fill(long[], int, int)} which reserves each range of one tick in one atomic step,
+ * so a JDBC batch costs about one reservation instead of one per row
+ * <p>
+ * a session is used by one thread, so the pool is kept by the thread and dropped when the thread turns to another session,
+ * IDs left in it are never issued again; IDs of a pool are of the time it was refilled
+ */
+public class SnowFlakeIdIdentifierGenerator implements IdentifierGenerator {
+    static final int DEFAULT_POOL_SIZE = 50;
+
+    private final String generator;
+    private final int poolSize;
+    private final ThreadLocal<Pool> pools = new ThreadLocal<>();
+    private volatile SnowFlakeIdHelper helper;
+
+    /**
+     * created by hibernate for {@link SnowFlakeId}
+     */
+    public SnowFlakeIdIdentifierGenerator(SnowFlakeId config, Member member, CustomIdGeneratorCreationContext context) {
+        this.generator = config.generator();
+        this.poolSize = 0 < config.poolSize() ? config.poolSize() : batchSize(context);
+    }
+
+    SnowFlakeIdIdentifierGenerator(SnowFlakeIdHelper helper, int poolSize) {
+        this.generator = "";
+        this.poolSize = poolSize;
+        this.helper = helper;
+    }
+
+    private static int batchSize(GeneratorCreationContext context) {
+        int batchSize = ConfigurationHelper.getInt(AvailableSettings.STATEMENT_BATCH_SIZE,
+                context.getServiceRegistry().requireService(ConfigurationService.class).getSettings(), 0);
+        return 0 < batchSize ? batchSize : DEFAULT_POOL_SIZE;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Pool pool = pools.get();
+        if (null == pool) {
+            pool = new Pool(poolSize);
+            pools.set(pool);
+        }
+        if (pool.session.get() != session) {
+            pool.session = new WeakReference<>(session);
+            pool.next = pool.ids.length;
+        }
+        if (pool.next == pool.ids.length) {
+            helper().fill(pool.ids, 0, pool.ids.length);
+            pool.next = 0;
+        }
+        return pool.ids[pool.next++];
+    }
+
+    private SnowFlakeIdHelper helper() {
+        SnowFlakeIdHelper helper = this.helper;
+        if (null == helper) {
+            this.helper = helper = SnowFlakeIdHibernateHelpers.get(generator);
+        }
+        return helper;
+    }
+
+    /**
+     * IDs reserved for the session, the session is weakly referenced so a closed one is not kept by the thread
+     */
+    private static final class Pool {
+        final long[] ids;
+        int next;
+        WeakReference<Object> session = new WeakReference<>(null);
+
+        Pool(int size) {
+            this.ids = new long[size];
+            this.next = size;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * publish {@link SnowFlakeIdStats} of a helper, counters are read from LongAdders only when the registry polls them
+ */
+public class SnowFlakeIdMetrics implements MeterBinder {
+    private final SnowFlakeIdHelper helper;
+    private final Tags tags;
+
+    /**
+     * @param name tag `name` of meters, to tell helpers apart
+     */
+    public SnowFlakeIdMetrics(SnowFlakeIdHelper helper, String name) {
+        this.helper = helper;
+        this.tags = Tags.of("name", name);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        SnowFlakeIdStats stats = helper.getStats();
+        counter(registry, "snowflakeid.ids.issued", "IDs issued", Tags.empty(), SnowFlakeIdStats::getIssued);
+        counter(registry, "snowflakeid.sequence.exhausted", "calls that found the sequence of their tick used up", Tags.empty(), SnowFlakeIdStats::getExhausted);
+        counter(registry, "snowflakeid.sequence.overflow", "calls handled by overflow policy", Tags.of("path", "spin"), SnowFlakeIdStats::getSpins);
+        counter(registry, "snowflakeid.sequence.overflow", "calls handled by overflow policy", Tags.of("path", "park"), SnowFlakeIdStats::getParks);
+        counter(registry, "snowflakeid.sequence.overflow", "calls handled by overflow policy", Tags.of("path", "borrow"), SnowFlakeIdStats::getBorrows);
+        counter(registry, "snowflakeid.sequence.overflow", "calls handled by overflow policy", Tags.of("path", "fail"), SnowFlakeIdStats::getFailures);
+        counter(registry, "snowflakeid.clock.regressions", "times the clock went backwards", Tags.empty(), SnowFlakeIdStats::getClockRegressions);
+        counter(registry, "snowflakeid.clock.regression.ticks", "total ticks the clock went backwards", Tags.empty(), SnowFlakeIdStats::getClockRegressionTicks);
+        Gauge.builder("snowflakeid.clock.regression.max", stats, SnowFlakeIdStats::getMaxClockRegressionTicks)
+                .description("max ticks the clock went backwards at once")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("snowflakeid.sequence.remaining", helper, SnowFlakeIdHelper::getRemainingSequence)
+                .description("sequence left in current tick")
+                .tags(tags)
+                .register(registry);
+
+        RecyclableAtomicLong sequence = helper.getSequence();
+        if (null != sequence) {
+            FunctionCounter.builder("snowflakeid.recyclable.cas.retries", sequence, RecyclableAtomicLong::getCasRetries)
+                    .description("retries after recycling to 0 by CAS")
+                    .tags(tags)
+                    .register(registry);
+            FunctionCounter.builder("snowflakeid.recyclable.lock.fallbacks", sequence, RecyclableAtomicLong::getLockFallbacks)
+                    .description("times falling back to lock")
+                    .tags(tags)
+                    .register(registry);
+        }
+        BackfillTickSequence backfill = helper.getBackfillSequence();
+        if (null != backfill) {
+            FunctionCounter.builder("snowflakeid.backfill.evicted", backfill, BackfillTickSequence::getEvictedHits)
+                    .description("explicit times of ticks already evicted from the backfill window")
+                    .tags(tags)
+                    .register(registry);
+        }
+        if (null != helper.getSequenceCache()) {
+            CaffeineCacheMetrics.monitor(registry, helper.getSequenceCache(), "snowflakeid.sequence", tags);
+        }
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, Tags extra, ToDoubleFunction<SnowFlakeIdStats> f) {
+        FunctionCounter.builder(name, helper.getStats(), f)
+                .description(description)
+                .tags(tags.and(extra))
+                .register(registry);
+    }
+}
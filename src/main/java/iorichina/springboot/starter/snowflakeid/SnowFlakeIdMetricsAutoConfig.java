@@ -0,0 +1,31 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@AutoConfigureAfter(SnowFlakeIdAutoConfig.class)
+@ConditionalOnClass(MeterRegistry.class)
+public class SnowFlakeIdMetricsAutoConfig {
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(SnowFlakeIdHelper.class)
+    public SnowFlakeIdMetrics snowFlakeIdMetrics(SnowFlakeIdHelper snowFlakeIdHelper) {
+        return new SnowFlakeIdMetrics(snowFlakeIdHelper, "default");
+    }
+
+    /**
+     * meters of `snowflakeid.generators.*` tagged by name of each generator
+     */
+    @Bean
+    @ConditionalOnBean(SnowFlakeIdGenerators.class)
+    public MeterBinder snowFlakeIdGeneratorsMetrics(SnowFlakeIdGenerators snowFlakeIdGenerators) {
+        return registry -> snowFlakeIdGenerators.forEach((name, helper) -> new SnowFlakeIdMetrics(helper, name).bindTo(registry));
+    }
+}
@@ -22,14 +22,31 @@ public class SnowFlakeIdProperties {
      * DAYS
      */
     private String timeUnit = "MILLISECONDS";
+    /**
+     * clock of current-time IDs
+     * SYSTEM: System.currentTimeMillis(), millisecond resolution, default
+     * MONOTONIC: System.nanoTime() anchored on wall clock at startup, for MICROSECONDS and NANOSECONDS, never goes backwards but drifts from wall clock
+     * TICKER: coarse clock of SYSTEM updated every `timeSourceTickerIntervalMicros` by a ticker thread, readers only read a volatile field
+     */
+    private String timeSource = "SYSTEM";
+    private long timeSourceTickerIntervalMicros = 1000;
     /**
      * tenant id and node id are used to generate distributed unique
      */
     private long tenantId = 0;
     /**
-     * -1 means we will be set to last `bitsOfNode` bits of a long value of local ipv4 address
+     * -1 means we will assign it by `workerIdAssigner`
      */
     private long nodeId = -1;
+    /**
+     * how to assign node id if nodeId=-1
+     * FILE: lease node id from lock files under `workerIdDirectory`, unique among processes on one host,
+     * cached in `{workerIdKey}.node` and reused on restart, otherwise searching starts from the IP one, default
+     * IP: last `bitsOfNode` bits of a long value of local ipv4 address
+     */
+    private String workerIdAssigner = "FILE";
+    private String workerIdDirectory = System.getProperty("java.io.tmpdir") + "/snowflakeid";
+    private String workerIdKey = "default";
 
     /**
      * recommended bits of snowflake id:
@@ -50,16 +67,86 @@ public class SnowFlakeIdProperties {
     private int bitsOfTenant = 3;
     private int bitsOfNode = 8;
     private int bitsOfAutoincrement = 12;
+    /**
+     * low bits of node reserved as shard slot for genIdForShard(int), nodeId is then at most (1 << (bitsOfNode - bitsOfShard)) - 1
+     */
+    private int bitsOfShard = 0;
 
     /**
-     * use loading-cache for recyclable long, default to true
+     * PACKED: last tick and sequence packed in one atomic word, one CAS per ID and no allocation, default
+     * STRIPED: sequence of each tick split into `stripes` packed words, less CAS contention at high thread counts,
+     * but IDs in one tick are no longer ordered across threads
+     * CACHE: loading-cache of sequence for each unit of time
+     * RECYCLABLE: deprecated, PACKED with a warning on startup
+     * empty means it is decided by `useCache`
+     */
+    private String strategy = "";
+    /**
+     * what to do when the sequence of a unit of time is used up
+     * SPIN: busy spin until the next unit of time
+     * PARK: spin a while, then park with backoff until the next unit of time, default
+     * BORROW: issue on up to `maxBorrowTicks` future units of time, then park like PARK
+     * FAIL: throw SequenceExhaustedException
+     * explicit times in the past or more than `maxBorrowTicks` ahead can't wait, they throw SequenceExhaustedException unless borrowing
+     */
+    private String overflowPolicy = "PARK";
+    private long maxBorrowTicks = 10;
+    /**
+     * what to do when the clock goes backwards
+     * LAST_TICK: keep issuing on the last unit of time with its spare sequence, default
+     * WAIT: wait for the clock to catch up if the regression is no more than `maxClockRegressionWaitMillis`, otherwise throw ClockMovedBackwardsException
+     * REJECT: throw ClockMovedBackwardsException
+     */
+    private String clockRegressionPolicy = "LAST_TICK";
+    private long maxClockRegressionWaitMillis = 10;
+    /**
+     * if strategy=STRIPED, count of stripes, round up to power of 2, 0 means available processors
+     */
+    private int stripes = 0;
+    /**
+     * if strategy=PACKED and it is not empty, tick and sequence of current-time IDs live in this memory-mapped file,
+     * shared by processes on one host, so they could share one `nodeId`, which must be fixed rather than -1
+     */
+    private String sharedStateFile = "";
+    /**
+     * ticks of this time reserved ahead by each checkpoint of `sharedStateFile` forced to disk,
+     * the first start after a crash of the host may wait for them
+     */
+    private long sharedStateCheckpointMillis = 1000;
+    /**
+     * the switch of strategy before there was strategy: true means CACHE, false means the deprecated RECYCLABLE(so PACKED), unset means PACKED,
+     * it only decides when strategy is empty, and conflicting with strategy is rejected
      */
-    private boolean useCache = true;
-    private int maximumSize = 1024;//such as 1024 ms has 1024 sequence to generate recyclable long
+    private Boolean useCache;
+    private int maximumSize = 1024;//such as 1024 ms has 1024 sequence to generate recyclable long, PACKED and STRIPED use it as the window of ticks for explicit times before startup
     private boolean recordStats = true;
     /**
-     * if useCache=false, set CAS try times while recyclable long fail reset to 0, use synchronized lock after max try
+     * CAS try times of the deprecated recyclable long of SnowFlakeIdHelper, no longer used by strategy
      */
     private int recyclableLongMaxTry = 1000;
 
+    /**
+     * size of ring buffer of IDs generated ahead of demand, round up to power of 2,
+     * SnowFlakeIdRingBuffer is only created when it is greater than 0
+     */
+    private int ringBufferSize = 0;
+    /**
+     * percent of ringBufferSize, padding starts when occupancy of ring drops below it
+     */
+    private int ringBufferPaddingFactor = 50;
+    /**
+     * padding ring periodically besides on demand, 0 means only on demand
+     */
+    private long ringBufferPaddingIntervalMillis = 0;
+    /**
+     * VIRTUAL: padding in a virtual thread
+     * PLATFORM: padding in a platform daemon thread
+     */
+    private String ringBufferPaddingThread = "VIRTUAL";
+
+    /**
+     * max IDs reserved in one step by ReactiveSnowFlakeIdHelper, larger demand of subscriber is reserved in steps
+     */
+    private int reactiveMaxBatchSize = 1024;
+
 }
@@ -0,0 +1,22 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+@AutoConfigureAfter(SnowFlakeIdAutoConfig.class)
+@ConditionalOnClass(Flux.class)
+public class SnowFlakeIdReactiveAutoConfig {
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(SnowFlakeIdHelper.class)
+    public ReactiveSnowFlakeIdHelper reactiveSnowFlakeIdHelper(SnowFlakeIdHelper snowFlakeIdHelper, SnowFlakeIdProperties properties) {
+        return new ReactiveSnowFlakeIdHelper(snowFlakeIdHelper, Schedulers.parallel(), properties.getReactiveMaxBatchSize());
+    }
+}
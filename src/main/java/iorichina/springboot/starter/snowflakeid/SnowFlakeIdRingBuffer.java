@@ -0,0 +1,167 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * IDs generated ahead of demand into a power of 2 ring by a padding thread,
+ * genId() is a pointer bump on the ring and falls back to {@link SnowFlakeIdHelper#genId()} when the ring is drained
+ * <p>
+ * IDs in the ring carry the time they were padded, not the time they were taken
+ */
+@Getter
+public class SnowFlakeIdRingBuffer implements AutoCloseable {
+    private final SnowFlakeIdHelper helper;
+    private final int size;
+    /**
+     * padding starts when occupancy drops below it
+     */
+    private final int paddingThreshold;
+    /**
+     * padding periodically besides on demand, 0 means only on demand
+     */
+    private final long paddingIntervalMillis;
+
+    @Getter(AccessLevel.NONE)
+    private final long[] slots;
+    @Getter(AccessLevel.NONE)
+    private final int mask;
+    /**
+     * last padded index
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong tail = new AtomicLong(-1);
+    /**
+     * last taken index
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong cursor = new AtomicLong(-1);
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean paddingRequested = new AtomicBoolean();
+    @Getter(AccessLevel.NONE)
+    private final Thread paddingThread;
+    @Getter(AccessLevel.NONE)
+    private volatile boolean running = true;
+    @Getter(AccessLevel.NONE)
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * @param size                  size of ring, round up to power of 2
+     * @param paddingFactor         percent of size, padding starts when occupancy drops below it
+     * @param paddingIntervalMillis padding periodically besides on demand, 0 means only on demand
+     * @param virtualThread         padding in a virtual thread, or a platform daemon thread
+     */
+    public SnowFlakeIdRingBuffer(SnowFlakeIdHelper helper, int size, int paddingFactor, long paddingIntervalMillis, boolean virtualThread) {
+        this.helper = helper;
+        int pow2 = 1;
+        while (pow2 < size) {
+            pow2 <<= 1;
+        }
+        this.size = pow2;
+        this.mask = pow2 - 1;
+        this.paddingThreshold = (int) ((long) pow2 * Math.max(0, Math.min(100, paddingFactor)) / 100);
+        this.paddingIntervalMillis = paddingIntervalMillis;
+        this.slots = new long[pow2];
+        padding();
+
+        Thread.Builder builder = virtualThread ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        this.paddingThread = builder.name("snowflakeid-ring-padding").start(this::runPadding);
+    }
+
+    /**
+     * take next ID from ring, or generate directly when the ring is drained
+     */
+    public long genId() {
+        for (; ; ) {
+            long current = cursor.get();
+            long next = current + 1;
+            long last = tail.get();
+            if (next > last) {
+                requestPadding();
+                fallbacks.increment();
+                return helper.genId();
+            }
+            long id = slots[(int) next & mask];
+            if (cursor.compareAndSet(current, next)) {
+                if (last - next < paddingThreshold) {
+                    requestPadding();
+                }
+                return id;
+            }
+        }
+    }
+
+    /**
+     * IDs padded and not taken yet
+     */
+    public int getOccupancy() {
+        return (int) Math.max(0, tail.get() - cursor.get());
+    }
+
+    /**
+     * times of generating directly because the ring was drained
+     */
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * drop IDs padded and not taken yet and pad again, such as after the JVM is restored from a checkpoint
+     * whose copies hold the same IDs in their rings
+     */
+    public void discard() {
+        for (; ; ) {
+            long current = cursor.get();
+            long last = tail.get();
+            if (current >= last || cursor.compareAndSet(current, last)) {
+                break;
+            }
+        }
+        requestPadding();
+    }
+
+    private void requestPadding() {
+        if (!paddingRequested.get() && paddingRequested.compareAndSet(false, true)) {
+            LockSupport.unpark(paddingThread);
+        }
+    }
+
+    private void runPadding() {
+        while (running) {
+            paddingRequested.set(false);
+            padding();
+            if (paddingIntervalMillis > 0) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(paddingIntervalMillis));
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    /**
+     * fill free slots with batch of IDs, only called by one thread at a time
+     */
+    private void padding() {
+        long last = tail.get();
+        long limit = cursor.get() + size;
+        while (last < limit) {
+            int from = (int) (last + 1) & mask;
+            int len = (int) Math.min(limit - last, size - from);
+            helper.fill(slots, from, len);
+            last += len;
+            tail.set(last);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(paddingThread);
+    }
+}
@@ -0,0 +1,28 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.boot.context.properties.bind.BindableRuntimeHintsRegistrar;
+import org.springframework.util.ClassUtils;
+
+/**
+ * hints of native image for what is reached by reflection out of bean definitions:
+ * SnowFlakeIdProperties bound from `snowflakeid.generators.*` at runtime, the generator of {@link SnowFlakeId} created by hibernate,
+ * and VectorizedIdDecoder loaded by {@link SnowFlakeIdDecoder}
+ * <p>
+ * specialized codecs of {@link IdLayout} are hidden classes which a native image can't define, codecs reading fields are used instead
+ */
+class SnowFlakeIdRuntimeHints implements RuntimeHintsRegistrar {
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindableRuntimeHintsRegistrar.forTypes(SnowFlakeIdProperties.class).registerHints(hints, classLoader);
+        if (ClassUtils.isPresent("org.hibernate.id.IdentifierGenerator", classLoader)) {
+            hints.reflection().registerType(TypeReference.of("iorichina.springboot.starter.snowflakeid.SnowFlakeIdIdentifierGenerator"),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        hints.reflection().registerType(TypeReference.of("iorichina.springboot.starter.snowflakeid.VectorizedIdDecoder"),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+    }
+}
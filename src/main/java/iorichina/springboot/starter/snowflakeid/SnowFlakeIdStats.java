@@ -0,0 +1,134 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * striped counters of generator events, cheap enough to stay on the hot path
+ */
+public class SnowFlakeIdStats {
+    /**
+     * anomalies kept in {@link #getRecentAnomalies()}, a power of 2
+     */
+    static final int RECENT_ANOMALIES = 16;
+
+    final LongAdder issued = new LongAdder();
+    final LongAdder exhausted = new LongAdder();
+    final LongAdder spins = new LongAdder();
+    final LongAdder parks = new LongAdder();
+    final LongAdder borrows = new LongAdder();
+    final LongAdder failures = new LongAdder();
+    final LongAdder clockRegressions = new LongAdder();
+    final LongAdder clockRegressionTicks = new LongAdder();
+    final AtomicLong maxClockRegressionTicks = new AtomicLong();
+    /**
+     * ring of recent anomalies, written only when one happens
+     */
+    private final AtomicReferenceArray<SnowFlakeIdAnomaly> anomalies = new AtomicReferenceArray<>(RECENT_ANOMALIES);
+    private final AtomicLong anomalyCount = new AtomicLong();
+
+    /**
+     * IDs issued
+     */
+    public long getIssued() {
+        return issued.sum();
+    }
+
+    /**
+     * calls that found the sequence of their tick used up
+     */
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    /**
+     * calls that busy spun to the next tick
+     */
+    public long getSpins() {
+        return spins.sum();
+    }
+
+    /**
+     * parks while waiting for the next tick
+     */
+    public long getParks() {
+        return parks.sum();
+    }
+
+    /**
+     * calls that borrowed future ticks
+     */
+    public long getBorrows() {
+        return borrows.sum();
+    }
+
+    /**
+     * calls failed with {@link SequenceExhaustedException}
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * times the clock went backwards, calls during one regression are counted once
+     */
+    public long getClockRegressions() {
+        return clockRegressions.sum();
+    }
+
+    /**
+     * total ticks the clock went backwards
+     */
+    public long getClockRegressionTicks() {
+        return clockRegressionTicks.sum();
+    }
+
+    /**
+     * max ticks the clock went backwards at once
+     */
+    public long getMaxClockRegressionTicks() {
+        return maxClockRegressionTicks.get();
+    }
+
+    void recordClockRegression(long ticks) {
+        clockRegressions.increment();
+        clockRegressionTicks.add(ticks);
+        maxClockRegressionTicks.accumulateAndGet(ticks, Math::max);
+    }
+
+    /**
+     * up to the last 16 anomalies, newest first
+     */
+    public List<SnowFlakeIdAnomaly> getRecentAnomalies() {
+        long count = anomalyCount.get();
+        List<SnowFlakeIdAnomaly> recent = new ArrayList<>(RECENT_ANOMALIES);
+        for (long i = count - 1; i >= 0 && i >= count - RECENT_ANOMALIES; i--) {
+            SnowFlakeIdAnomaly anomaly = anomalies.get((int) (i & (RECENT_ANOMALIES - 1)));
+            //a slot claimed but not written yet in the first round
+            if (null != anomaly) {
+                recent.add(anomaly);
+            }
+        }
+        return recent;
+    }
+
+    /**
+     * the anomaly is not the newest one, calls of one regression or one used up tick are kept once
+     */
+    boolean isNewAnomaly(SnowFlakeIdAnomaly.Type type, long time) {
+        long count = anomalyCount.get();
+        if (0 == count) {
+            return true;
+        }
+        SnowFlakeIdAnomaly newest = anomalies.get((int) ((count - 1) & (RECENT_ANOMALIES - 1)));
+        return null == newest || newest.getType() != type || newest.getTime() != time;
+    }
+
+    void recordAnomaly(SnowFlakeIdAnomaly.Type type, long time, String detail) {
+        long i = anomalyCount.getAndIncrement();
+        anomalies.set((int) (i & (RECENT_ANOMALIES - 1)), new SnowFlakeIdAnomaly(System.currentTimeMillis(), type, time, detail));
+    }
+}
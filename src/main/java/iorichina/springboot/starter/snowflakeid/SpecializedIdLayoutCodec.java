@@ -0,0 +1,72 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * template of {@link IdLayoutCodec} defined as a hidden class for each layout by {@link IdLayout},
+ * shifts and masks are static final fields from class data, so they are constants to the JIT,
+ * tenantId and nodeId are the final prefix of each instance
+ * <p>
+ * never used as a normal class
+ */
+final class SpecializedIdLayoutCodec implements IdLayoutCodec {
+    private static final int LEFT_OF_TIME;
+    private static final int LEFT_OF_TENANT;
+    private static final int LEFT_OF_NODE;
+    private static final long MAX_TENANT_NUM;
+    private static final long MAX_NODE_NUM;
+    private static final long MAX_AUTOINCREMENT_NUM;
+
+    static {
+        long[] data;
+        try {
+            data = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, long[].class);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        if (null == data) {
+            throw new IllegalStateException("template is only used as hidden class with class data");
+        }
+        LEFT_OF_TIME = (int) data[0];
+        LEFT_OF_TENANT = (int) data[1];
+        LEFT_OF_NODE = (int) data[2];
+        MAX_TENANT_NUM = data[3];
+        MAX_NODE_NUM = data[4];
+        MAX_AUTOINCREMENT_NUM = data[5];
+    }
+
+    private final long prefix;
+
+    /**
+     * @param prefix tenantId and nodeId in place
+     */
+    SpecializedIdLayoutCodec(long prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public long encode(long tick, long sequence) {
+        return (tick << LEFT_OF_TIME) | prefix | sequence;
+    }
+
+    @Override
+    public long tickOf(long id) {
+        return id >>> LEFT_OF_TIME;
+    }
+
+    @Override
+    public long tenantOf(long id) {
+        return (id >>> LEFT_OF_TENANT) & MAX_TENANT_NUM;
+    }
+
+    @Override
+    public long nodeOf(long id) {
+        return (id >>> LEFT_OF_NODE) & MAX_NODE_NUM;
+    }
+
+    @Override
+    public long sequenceOf(long id) {
+        return id & MAX_AUTOINCREMENT_NUM;
+    }
+}
@@ -0,0 +1,225 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * sequence of each tick split into stripes, every stripe is a padded packed word owning
+ * a contiguous sub range of sequence: [stripe * stripeSize, (stripe + 1) * stripeSize)
+ * <p>
+ * threads are spread over stripes by thread id, and steal from sibling stripes when their own is used up,
+ * so IDs are still unique but only ordered by tick: IDs in one tick are ordered inside one stripe,
+ * not across stripes, and a thread stealing from a sibling may get a smaller ID in the same tick;
+ * every stripe starts the newest tick started by any of them, so ticks of one thread never go back
+ */
+public class StripedTickSequence implements TickSequence, PackedWords {
+    /**
+     * newest tick started by any stripe, in the padding before the first stripe
+     */
+    private static final int NEWEST = 0;
+    /**
+     * newest tick with IDs issued ahead of it in backfill and its last sequence issued there, next to NEWEST
+     */
+    private static final int FLOOR = 1;
+
+    final long bitsOfSequence;
+    final long maxSequence;
+    @Getter
+    final int stripes;
+    final long stripeSize;
+    private final AtomicLongArray cells;
+    /**
+     * ticks no longer issued here are used up in it, set before issuing any tick
+     */
+    private BackfillTickSequence retired;
+
+    /**
+     * @param bitsOfSequence bits of sequence in the packed word
+     * @param stripes        count of stripes, round up to power of 2, 0 means available processors
+     */
+    public StripedTickSequence(long bitsOfSequence, int stripes) {
+        this.bitsOfSequence = bitsOfSequence;
+        this.maxSequence = -1L ^ (-1L << bitsOfSequence);
+        if (stripes <= 0) {
+            stripes = Runtime.getRuntime().availableProcessors();
+        }
+        int pow2 = 1;
+        while (pow2 < stripes && pow2 <= maxSequence) {
+            pow2 <<= 1;
+        }
+        this.stripes = pow2;
+        this.stripeSize = (maxSequence + 1) / this.stripes;
+        this.cells = new AtomicLongArray((this.stripes + 1) * PAD);
+        reset();
+    }
+
+    /**
+     * start over before tick 0 as a new sequence
+     */
+    void reset() {
+        cells.set(NEWEST, -1L);
+        cells.set(FLOOR, -1L);
+        for (int i = 0; i < stripes; i++) {
+            cells.set(indexOf(i), (-1L << bitsOfSequence) | lastOf(i));
+        }
+    }
+
+    /**
+     * use up the newest tick in every stripe, so it is never issued again and the next call starts a newer tick
+     */
+    void seal() {
+        long newest = cells.get(NEWEST);
+        if (newest < 0) {
+            return;
+        }
+        for (int i = 0; i < stripes; i++) {
+            cells.getAndAccumulate(indexOf(i), (newest << bitsOfSequence) | lastOf(i), Math::max);
+        }
+    }
+
+    private static int indexOf(int stripe) {
+        return (stripe + 1) * PAD;
+    }
+
+    private long lastOf(int stripe) {
+        return (stripe + 1) * stripeSize - 1;
+    }
+
+    /**
+     * a tick older than the newest one is published to backfill as used up, stripes may still be issuing it
+     */
+    void retireTo(BackfillTickSequence backfill) {
+        this.retired = backfill;
+    }
+
+    /**
+     * home stripe of current thread
+     */
+    private int probe() {
+        long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (stripes - 1);
+    }
+
+    @Override
+    public long getAndIncrementWithTick(long tick) {
+        return getAndAddWithTick(tick, 1);
+    }
+
+    @Override
+    public long getAndAddWithTick(long tick, long count) {
+        tick = newest(tick);
+        int home = probe();
+        long exhausted = Long.MIN_VALUE;
+        for (int i = 0; i < stripes; i++) {
+            long first = getAndAddWithTick((home + i) & (stripes - 1), tick, count, false);
+            if (!TickSequence.isExhausted(first)) {
+                return first;
+            }
+            //the smallest used up tick, borrowing from it never skips a stripe with spare sequence
+            exhausted = Math.max(exhausted, first);
+        }
+        return exhausted;
+    }
+
+    /**
+     * issue tick itself on the stripes, a stripe started a newer tick by a racing thread returns {@link #STALE}
+     * rather than continuing on it, so the caller gets exactly tick or falls back to backfill
+     */
+    @Override
+    public long getAndAddOnTick(long tick, long count) {
+        if (newest(tick) > tick) {
+            return STALE;
+        }
+        int home = probe();
+        for (int i = 0; i < stripes; i++) {
+            long first = getAndAddWithTick((home + i) & (stripes - 1), tick, count, true);
+            if (STALE == first || !TickSequence.isExhausted(first)) {
+                return first;
+            }
+        }
+        return ~tick;
+    }
+
+    /**
+     * publish tick before any stripe starts it, older ticks continue on the newest one,
+     * so a thread never gets an older tick than it got before, whichever stripe it used;
+     * written about once per tick, reading it doesn't contend
+     * <p>
+     * tick is claimed from backfill before it is published, stripes start it after the IDs issued there ahead of it
+     */
+    private long newest(long tick) {
+        for (; ; ) {
+            long newest = cells.get(NEWEST);
+            if (tick <= newest) {
+                return newest;
+            }
+            if (null != retired) {
+                if (newest >= 0) {
+                    retired.retire((newest << bitsOfSequence) | maxSequence);
+                }
+                long floor = retired.claim(tick, 0);
+                if (floor > 0) {
+                    cells.getAndAccumulate(FLOOR, (tick << bitsOfSequence) | (floor - 1), Math::max);
+                }
+            }
+            if (cells.compareAndSet(NEWEST, newest, tick)) {
+                return tick;
+            }
+        }
+    }
+
+    private long getAndAddWithTick(int stripe, long tick, long count, boolean exact) {
+        long last = lastOf(stripe);
+        return PackedWords.getAndAdd(this, indexOf(stripe), bitsOfSequence, tick, count, last - stripeSize + 1, last, exact);
+    }
+
+    /**
+     * a stripe starts tick above the IDs issued on it in backfill, a tick older than the newest one with such IDs is used up
+     */
+    @Override
+    public final long firstOf(int index, long tick, long firstSequence) {
+        long floor = cells.get(FLOOR);
+        long floorTick = floor >> bitsOfSequence;
+        if (floorTick < tick) {
+            return firstSequence;
+        }
+        return floorTick > tick ? maxSequence + 1 : Math.max(firstSequence, (floor & maxSequence) + 1);
+    }
+
+    @Override
+    public final long word(int index) {
+        return cells.get(index);
+    }
+
+    @Override
+    public final boolean casWord(int index, long expect, long update) {
+        return cells.compareAndSet(index, expect, update);
+    }
+
+    @Override
+    public long rangeOf(long first, long count) {
+        long sequence = first & maxSequence;
+        return Math.min(count, stripeSize - sequence % stripeSize);
+    }
+
+    @Override
+    public long tickOf(long packed) {
+        return packed >> bitsOfSequence;
+    }
+
+    @Override
+    public long sequenceOf(long packed) {
+        return packed & maxSequence;
+    }
+
+    @Override
+    public long remainingOf(long tick) {
+        long remaining = 0;
+        for (int i = 0; i < stripes; i++) {
+            long current = cells.get(indexOf(i));
+            remaining += tick > (current >> bitsOfSequence) ? stripeSize : lastOf(i) - (current & maxSequence);
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,14 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * System.currentTimeMillis(), only millisecond resolution
+ */
+public class SystemTimeSource implements TimeSource {
+    @Override
+    public long currentTime(TimeUnit unit) {
+        long millis = System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS == unit ? millis : unit.convert(millis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,105 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import lombok.Getter;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * one packed tick and sequence word for each tenant, the same as {@link PackedAtomicLong} but indexed by tenant,
+ * words are padded apart so tenants never share a cache line
+ * <p>
+ * sequences of tenants are independent, a hot tenant never uses up the sequence of others,
+ * it is indexed by shard the same way for {@link SnowFlakeIdHelper#genIdForShard(int)}
+ */
+public class TenantTickSequence implements PackedWords {
+    final long bitsOfSequence;
+    final long maxSequence;
+    @Getter
+    final int tenants;
+    private final AtomicLongArray cells;
+
+    /**
+     * @param bitsOfSequence bits of sequence in the packed word
+     * @param tenants        count of tenants, tenantId is from 0 to tenants - 1
+     */
+    public TenantTickSequence(long bitsOfSequence, int tenants) {
+        if (tenants <= 0 || tenants > Integer.MAX_VALUE / PAD - 1) {
+            throw new IllegalArgumentException("count of tenants out of range: " + tenants);
+        }
+        this.bitsOfSequence = bitsOfSequence;
+        this.maxSequence = -1L ^ (-1L << bitsOfSequence);
+        this.tenants = tenants;
+        this.cells = new AtomicLongArray((tenants + 1) * PAD);
+        for (int i = 0; i < tenants; i++) {
+            cells.set(indexOf(i), -1L);
+        }
+    }
+
+    /**
+     * use up the last tick of every tenant, so it is never issued again and the next call starts a newer tick
+     */
+    void seal() {
+        for (int i = 0; i < tenants; i++) {
+            cells.getAndUpdate(indexOf(i), word -> word | maxSequence);
+        }
+    }
+
+    private static int indexOf(int tenant) {
+        return (tenant + 1) * PAD;
+    }
+
+    /**
+     * the same as {@link TickSequence#getAndIncrementWithTick(long)} in the word of tenant
+     *
+     * @throws IndexOutOfBoundsException tenant is not from 0 to tenants - 1
+     */
+    public long getAndIncrementWithTick(int tenant, long tick) {
+        return getAndAddWithTick(tenant, tick, 1);
+    }
+
+    /**
+     * the same as {@link TickSequence#getAndAddWithTick(long, long)} in the word of tenant
+     *
+     * @throws IndexOutOfBoundsException tenant is not from 0 to tenants - 1
+     */
+    public long getAndAddWithTick(int tenant, long tick, long count) {
+        return PackedWords.getAndAdd(this, indexOf(Objects.checkIndex(tenant, tenants)), bitsOfSequence, tick, count, 0, maxSequence, false);
+    }
+
+    @Override
+    public final long word(int index) {
+        return cells.get(index);
+    }
+
+    @Override
+    public final boolean casWord(int index, long expect, long update) {
+        return cells.compareAndSet(index, expect, update);
+    }
+
+    /**
+     * size of the range reserved by {@link #getAndAddWithTick(int, long, long)}
+     */
+    public long rangeOf(long first, long count) {
+        return Math.min(count, maxSequence - (first & maxSequence) + 1);
+    }
+
+    public long tickOf(long packed) {
+        return packed >> bitsOfSequence;
+    }
+
+    public long sequenceOf(long packed) {
+        return packed & maxSequence;
+    }
+
+    /**
+     * sequence left in tick of tenant
+     */
+    public long remainingOf(int tenant, long tick) {
+        long current = cells.get(indexOf(Objects.checkIndex(tenant, tenants)));
+        if (tick > (current >> bitsOfSequence)) {
+            return maxSequence + 1;
+        }
+        return maxSequence - (current & maxSequence);
+    }
+}
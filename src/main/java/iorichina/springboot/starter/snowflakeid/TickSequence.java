@@ -0,0 +1,75 @@
+package iorichina.springboot.starter.snowflakeid;
+
+/**
+ * issue tick and sequence of current-time IDs, packed in one long: (tick &lt;&lt; bitsOfAutoincrement) | sequence
+ * <p>
+ * a negative result means the sequence of the last tick is used up, and {@code ~result} is that tick,
+ * so callers borrowing future ticks could jump over it at once
+ */
+public interface TickSequence {
+    /**
+     * result of {@link #getAndAddOnTick(long, long)} for a tick older than the last issued one
+     */
+    long STALE = Long.MIN_VALUE;
+
+    /**
+     * the sequence of the last tick is used up
+     */
+    static boolean isExhausted(long result) {
+        return result < 0;
+    }
+
+    /**
+     * the used up tick of an exhausted result
+     */
+    static long exhaustedTick(long result) {
+        return ~result;
+    }
+
+    /**
+     * issue the next tick and sequence, ticks older than the last issued one continue on the last tick
+     *
+     * @param tick current tick relative to start time
+     * @return packed tick and sequence, or negative if the last tick has no sequence left
+     */
+    long getAndIncrementWithTick(long tick);
+
+    /**
+     * reserve a contiguous range of sequence in one atomic step, the range never crosses the tick,
+     * use {@link #rangeOf(long, long)} to get the size of the range
+     *
+     * @param tick  current tick relative to start time
+     * @param count expected size of the range, at least 1
+     * @return packed tick and first sequence of the range, or negative if the last tick has no sequence left
+     */
+    long getAndAddWithTick(long tick, long count);
+
+    /**
+     * the same as {@link #getAndAddWithTick(long, long)}, but only issues on tick itself,
+     * so an explicit time keeps its own timestamp
+     *
+     * @return packed tick and first sequence of the range, negative if tick has no sequence left,
+     * or {@link #STALE} if tick is older than the last issued one, the caller issues it elsewhere
+     */
+    long getAndAddOnTick(long tick, long count);
+
+    /**
+     * size of the range reserved by {@link #getAndAddWithTick(long, long)}
+     */
+    long rangeOf(long first, long count);
+
+    /**
+     * tick of a packed word
+     */
+    long tickOf(long packed);
+
+    /**
+     * sequence of a packed word
+     */
+    long sequenceOf(long packed);
+
+    /**
+     * sequence left in the tick, all the sequence if the tick is not started yet
+     */
+    long remainingOf(long tick);
+}
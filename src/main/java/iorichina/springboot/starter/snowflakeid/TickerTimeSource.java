@@ -0,0 +1,45 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * coarse clock updated by a ticker thread, readers only read a volatile field,
+ * resolution is the interval of the ticker
+ */
+public class TickerTimeSource implements TimeSource, AutoCloseable {
+    private final TimeSource source;
+    private final long intervalNanos;
+    private final Thread ticker;
+    private volatile long nanos;
+    private volatile boolean running = true;
+
+    /**
+     * @param source         clock read by the ticker thread
+     * @param intervalMicros interval of the ticker
+     */
+    public TickerTimeSource(TimeSource source, long intervalMicros) {
+        this.source = source;
+        this.intervalNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(1, intervalMicros));
+        this.nanos = source.currentTime(TimeUnit.NANOSECONDS);
+        this.ticker = Thread.ofPlatform().daemon(true).name("snowflakeid-ticker").start(this::tick);
+    }
+
+    private void tick() {
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            nanos = source.currentTime(TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public long currentTime(TimeUnit unit) {
+        return unit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+}
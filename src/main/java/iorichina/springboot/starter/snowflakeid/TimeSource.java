@@ -0,0 +1,18 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * clock read by {@link SnowFlakeIdHelper} for current-time IDs
+ */
+public interface TimeSource {
+    /**
+     * System.currentTimeMillis()
+     */
+    TimeSource SYSTEM = new SystemTimeSource();
+
+    /**
+     * current time since epoch in unit
+     */
+    long currentTime(TimeUnit unit);
+}
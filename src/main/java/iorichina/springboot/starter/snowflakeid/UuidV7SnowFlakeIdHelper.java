@@ -0,0 +1,187 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RFC 9562 UUIDv7 of IDs of {@link SnowFlakeIdHelper}, one UUID for one ID:
+ * <pre>
+ * unix_ts_ms(48) + ver(4, 0111) + rand_a(12) + var(2, 10) + rand_b(62)
+ * </pre>
+ * unix_ts_ms is the time of the ID in millis, rand_a and rand_b are filled from high bits to low bits with
+ * the fraction of the time under millis(only for unit finer than millis), tenant + node + autoincrement of the ID,
+ * and random bits of ThreadLocalRandom for the rest
+ * <p>
+ * so UUIDs are unique and ordered as IDs are, including the monotonic sequence inside a millisecond,
+ * and the ID could be parsed back by {@link #parseId(long, long)}
+ */
+@Getter
+public class UuidV7SnowFlakeIdHelper {
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long MASK_OF_RAND_B = -1L >>> 2;
+    /**
+     * bits of rand_a and rand_b
+     */
+    private static final int BITS_OF_RAND = 74;
+
+    private final SnowFlakeIdHelper helper;
+    /**
+     * bits of the fraction of the time under millis
+     */
+    private final int bitsOfFraction;
+    /**
+     * random bits after fraction and ID
+     */
+    private final int bitsOfRandom;
+
+    @Getter(AccessLevel.NONE)
+    private final TimeUnit unit;
+    @Getter(AccessLevel.NONE)
+    private final long startTime;
+    @Getter(AccessLevel.NONE)
+    private final long leftOfTime;
+    @Getter(AccessLevel.NONE)
+    private final long unitsOfMillis;
+
+    /**
+     * @throws IllegalArgumentException fraction of time and bits under time of the ID are over 63 bits
+     */
+    public UuidV7SnowFlakeIdHelper(SnowFlakeIdHelper helper) {
+        this.helper = helper;
+        this.unit = helper.getUnit();
+        this.startTime = helper.getStartTime();
+        this.leftOfTime = helper.getLeftOfTime();
+        this.unitsOfMillis = unit.convert(1, TimeUnit.MILLISECONDS);
+        this.bitsOfFraction = unitsOfMillis > 1 ? 64 - Long.numberOfLeadingZeros(unitsOfMillis - 1) : 0;
+        if (bitsOfFraction + leftOfTime > 63) {
+            throw new IllegalArgumentException("fraction of " + unit + " in millis(" + bitsOfFraction + " bits) + tenant, node and autoincrement("
+                    + leftOfTime + " bits) must be at most 63 bits");
+        }
+        this.bitsOfRandom = (int) (BITS_OF_RAND - bitsOfFraction - leftOfTime);
+    }
+
+    /**
+     * UUID of current time
+     */
+    public UUID genUuid() {
+        long id = helper.genId();
+        return new UUID(mostSigBitsOf(id), leastSigBitsOf(id, ThreadLocalRandom.current()));
+    }
+
+    /**
+     * UUID of current time written as most significant bits at dst[off] and least significant bits at dst[off + 1],
+     * allocates nothing
+     */
+    public void genUuid(long[] dst, int off) {
+        Objects.checkFromIndexSize(off, 2, dst.length);
+        long id = helper.genId();
+        dst[off] = mostSigBitsOf(id);
+        dst[off + 1] = leastSigBitsOf(id, ThreadLocalRandom.current());
+    }
+
+    /**
+     * n UUIDs of current time in order, reserved by {@link SnowFlakeIdHelper#fill(long[], int, int)}
+     */
+    public UUID[] genUuids(int n) {
+        long[] bits = new long[n * 2];
+        fill(bits, 0, n);
+        UUID[] uuids = new UUID[n];
+        for (int i = 0; i < n; i++) {
+            uuids[i] = new UUID(bits[2 * i], bits[2 * i + 1]);
+        }
+        return uuids;
+    }
+
+    /**
+     * count UUIDs of current time in order, written as pairs of most and least significant bits from dst[off] to dst[off + count * 2 - 1],
+     * reserved by {@link SnowFlakeIdHelper#fill(long[], int, int)} into the second half and expanded forwards, so it allocates nothing
+     */
+    public void fill(long[] dst, int off, int count) {
+        Objects.checkFromIndexSize(off, count * 2, dst.length);
+        helper.fill(dst, off + count, count);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        //pair i is written over index off + 2i and off + 2i + 1, before the id of pair i at off + count + i is passed
+        for (int i = 0; i < count; i++) {
+            long id = dst[off + count + i];
+            dst[off + 2 * i] = mostSigBitsOf(id);
+            dst[off + 2 * i + 1] = leastSigBitsOf(id, random);
+        }
+    }
+
+    /**
+     * time of the ID relative to the epoch in unit of helper
+     */
+    private long timeOf(long id) {
+        return startTime + (id >>> leftOfTime);
+    }
+
+    /**
+     * fraction of time under millis and bits under time of the ID, bitsOfFraction + leftOfTime bits
+     */
+    private long payloadOf(long id) {
+        long low = id & ~(-1L << leftOfTime);
+        if (0 == bitsOfFraction) {
+            return low;
+        }
+        return (Math.floorMod(timeOf(id), unitsOfMillis) << leftOfTime) | low;
+    }
+
+    private long mostSigBitsOf(long id) {
+        long millis = unit.toMillis(timeOf(id));
+        long randA;
+        if (bitsOfRandom >= 62) {
+            randA = (payloadOf(id) << (bitsOfRandom - 62)) | randomBits(ThreadLocalRandom.current().nextLong(), bitsOfRandom - 62);
+        } else {
+            randA = payloadOf(id) >>> (62 - bitsOfRandom);
+        }
+        return (millis << 16) | VERSION | randA;
+    }
+
+    private long leastSigBitsOf(long id, ThreadLocalRandom random) {
+        if (bitsOfRandom >= 62) {
+            return VARIANT | randomBits(random.nextLong(), 62);
+        }
+        return VARIANT | (((payloadOf(id) << bitsOfRandom) | randomBits(random.nextLong(), bitsOfRandom)) & MASK_OF_RAND_B);
+    }
+
+    /**
+     * high bits of a random long
+     */
+    private static long randomBits(long random, int bits) {
+        return 0 == bits ? 0 : random >>> (64 - bits);
+    }
+
+    /**
+     * ID of a UUID generated by this helper
+     */
+    public long parseId(long mostSigBits, long leastSigBits) {
+        long randA = mostSigBits & 0xFFFL;
+        long randB = leastSigBits & MASK_OF_RAND_B;
+        long payload = bitsOfRandom >= 62 ? randA >>> (bitsOfRandom - 62) : (randA << (62 - bitsOfRandom)) | (randB >>> bitsOfRandom);
+        long time = unit.convert(mostSigBits >>> 16, TimeUnit.MILLISECONDS);
+        if (0 != bitsOfFraction) {
+            time += payload >>> leftOfTime;
+        }
+        return ((time - startTime) << leftOfTime) | (payload & ~(-1L << leftOfTime));
+    }
+
+    /**
+     * ID of a UUID generated by this helper
+     */
+    public long parseId(UUID uuid) {
+        return parseId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * unix_ts_ms of a UUIDv7
+     */
+    public static long parseTimeInMillis(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,17 @@
+package iorichina.springboot.starter.snowflakeid;
+
+/**
+ * assign node id of {@link SnowFlakeIdHelper} when nodeId is -1
+ */
+public interface WorkerIdAssigner {
+    /**
+     * last bits of local ipv4 address, or a random number if there is no ipv4 address
+     */
+    WorkerIdAssigner IP = new IpWorkerIdAssigner();
+
+    /**
+     * @param maxNodeNum max value of node id, (1 &lt;&lt; bitsOfNode) - 1
+     * @return node id between 0 and maxNodeNum (include)
+     */
+    long assign(long maxNodeNum);
+}
@@ -0,0 +1,56 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+class IdCodecTest {
+    @Test
+    void testEncodeDecode() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 12
+        );
+        long[] ids = {0, 1, 61, 62, 31, 32, helper.genId(), helper.genId(System.currentTimeMillis() + 1000), Long.MAX_VALUE};
+        for (IdCodec codec : new IdCodec[]{IdCodec.BASE32, IdCodec.BASE62}) {
+            byte[] bytes = new byte[codec.getLength() + 2];
+            char[] chars = new char[codec.getLength() + 2];
+            ByteBuffer buffer = ByteBuffer.allocateDirect(codec.getLength() * ids.length);
+            String last = null;
+            for (long id : ids) {
+                String text = codec.encode(id);
+                Assertions.assertEquals(codec.getLength(), text.length(), "编码长度不固定: " + text);
+                Assertions.assertEquals(id, codec.decode(text), "解码不正确: " + text);
+                Assertions.assertEquals(codec.getLength() + 1, codec.encode(id, bytes, 1));
+                Assertions.assertEquals(id, codec.decode(bytes, 1));
+                codec.encode(id, chars, 2);
+                Assertions.assertEquals(id, codec.decode(chars, 2));
+                codec.encode(id, buffer);
+                if (null != last && id > codec.decode(last)) {
+                    Assertions.assertTrue(text.compareTo(last) > 0, "编码未保持ID顺序: " + last + " " + text);
+                }
+                last = text;
+            }
+            buffer.flip();
+            for (long id : ids) {
+                Assertions.assertEquals(id, codec.decode(buffer));
+            }
+        }
+    }
+
+    @Test
+    void testInvalid() {
+        Assertions.assertEquals("7ZZZZZZZZZZZZ", IdCodec.BASE32.encode(Long.MAX_VALUE));
+        Assertions.assertEquals(Long.MAX_VALUE, IdCodec.BASE32.decode("7zzzzzzzzzzzz"), "Crockford应忽略大小写");
+        Assertions.assertEquals(IdCodec.BASE32.decode("0000000000011"), IdCodec.BASE32.decode("00OOOOOOOOOIL"), "Crockford应将I L视为1, O视为0");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdCodec.BASE32.decode("8000000000000"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdCodec.BASE62.decode("Azzzzzzzzzz"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdCodec.BASE62.decode("0000000000-"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdCodec.BASE62.decode("000"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdCodec.BASE62.encode(-1));
+    }
+}
@@ -0,0 +1,42 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class IdLayoutTest {
+    @Test
+    void testLayout() {
+        IdLayout layout = new IdLayout(40, 3, 8, 12);
+        Assertions.assertEquals(23, layout.getLeftOfTime());
+        Assertions.assertEquals(20, layout.getLeftOfTenant());
+        Assertions.assertEquals(12, layout.getLeftOfNode());
+        Assertions.assertEquals(4095, layout.getMaxAutoincrementNum());
+        Assertions.assertEquals(new IdLayout(40, 3, 8, 12), layout);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new IdLayout(41, 3, 8, 12), "超过63位应报错");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new IdLayout(0, 3, 8, 12));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new IdLayout(40, -1, 8, 12));
+    }
+
+    @Test
+    void testCodec() {
+        IdLayout layout = new IdLayout(40, 3, 8, 12);
+        IdLayoutCodec codec = layout.codec(5, 200);
+        Assertions.assertTrue(codec.getClass().isHidden(), "应生成隐藏类");
+        Assertions.assertNotSame(codec.getClass(), new IdLayout(31, 3, 8, 21).codec(5, 200).getClass(), "每个布局应有自己的隐藏类");
+        Assertions.assertSame(codec.getClass(), new IdLayout(40, 3, 8, 12).codec(1, 2).getClass(), "同一布局应共用一个隐藏类");
+        Assertions.assertEquals(1, codec.tenantOf(new IdLayout(40, 3, 8, 12).codec(1, 2).encode(0, 0)), "租户应在实例前缀中");
+        IdLayoutCodec fields = new FieldIdLayoutCodec(new long[]{23, 20, 12, 7, 255, 4095}, (5L << 20) | (200L << 12));
+        long[] ticks = {0, 1, 123456789, layout.getMaxTimeNum()};
+        for (long tick : ticks) {
+            for (long sequence : new long[]{0, 1, 4095}) {
+                long id = codec.encode(tick, sequence);
+                Assertions.assertTrue(id >= 0, "ID不应溢出到符号位");
+                Assertions.assertEquals(fields.encode(tick, sequence), id, "隐藏类与字段实现不一致");
+                Assertions.assertEquals(tick, codec.tickOf(id));
+                Assertions.assertEquals(5, codec.tenantOf(id));
+                Assertions.assertEquals(200, codec.nodeOf(id));
+                Assertions.assertEquals(sequence, codec.sequenceOf(id));
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+class MappedTickSequenceTest {
+    static final LocalDateTime START_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+    static final IdLayout LAYOUT = new IdLayout(40, 3, 8, 12);
+    static final long SIGNATURE = MappedTickSequence.signature(START_TIME, TimeUnit.MILLISECONDS, LAYOUT);
+
+    @Test
+    void testCheckpoint(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("shared.seq");
+        try (MappedTickSequence sequence = new MappedTickSequence(file, 4, 10, SIGNATURE)) {
+            Assertions.assertEquals(100L << 4, sequence.getAndIncrementWithTick(100));
+            Assertions.assertEquals(110, sequence.getCheckpoint(), "未提前预留检查点");
+            Assertions.assertEquals((100L << 4) | 1, sequence.getAndIncrementWithTick(99), "旧tick未延续最后tick");
+            Assertions.assertEquals(110, sequence.getCheckpoint());
+            Assertions.assertEquals(111L << 4, sequence.getAndIncrementWithTick(111));
+            Assertions.assertEquals(121, sequence.getCheckpoint(), "超过检查点未前移");
+
+            Assertions.assertThrows(IllegalStateException.class, () -> new MappedTickSequence(file, 4, 10, SIGNATURE), "同一JVM重复打开");
+        }
+        // the last one closing forces its state, a restart continues it
+        try (MappedTickSequence sequence = new MappedTickSequence(file, 4, 10, SIGNATURE)) {
+            Assertions.assertEquals(111, sequence.getCheckpoint());
+            Assertions.assertEquals((111L << 4) | 1, sequence.getAndIncrementWithTick(111), "重启后重复发号");
+        }
+        Assertions.assertThrows(IllegalStateException.class, () -> new MappedTickSequence(file, 4, 10, SIGNATURE + 1), "签名不一致未拒绝");
+        Assertions.assertThrows(IllegalStateException.class, () -> new MappedTickSequence(file, 5, 10, SIGNATURE), "序列位数不一致未拒绝");
+    }
+
+    @Test
+    void testRecoverLostState(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("shared.seq");
+        try (MappedTickSequence sequence = new MappedTickSequence(file, 4, 10, SIGNATURE)) {
+            sequence.getAndIncrementWithTick(100);
+            sequence.getAndIncrementWithTick(100);
+        }
+        // the host crashed: no clean close, the state word is lost, the checkpoint forced to disk survives
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).order(ByteOrder.nativeOrder()).putLong(0, 0L), 24);
+            channel.write(ByteBuffer.allocate(8).order(ByteOrder.nativeOrder()).putLong(0, -1L), 64);
+        }
+        try (MappedTickSequence sequence = new MappedTickSequence(file, 4, 10, SIGNATURE)) {
+            long result = sequence.getAndIncrementWithTick(100);
+            Assertions.assertTrue(TickSequence.isExhausted(result), "丢失状态后重复发号");
+            Assertions.assertEquals(100, TickSequence.exhaustedTick(result));
+            Assertions.assertEquals(101L << 4, sequence.getAndIncrementWithTick(101));
+        }
+    }
+
+    @Test
+    void testSharedByProcesses(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("shared.seq");
+        Path childIds = dir.resolve("child.ids");
+        int count = 200_000;
+        Set<Long> ids = new HashSet<>();
+        try (MappedTickSequence sequence = new MappedTickSequence(file, LAYOUT.getBitsOfAutoincrement(), 1000, SIGNATURE)) {
+            Process child = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"), Child.class.getName(),
+                    file.toString(), childIds.toString(), String.valueOf(count))
+                    .inheritIO().start();
+            SnowFlakeIdHelper helper = new SnowFlakeIdHelper(START_TIME, TimeUnit.MILLISECONDS, 1, 1, LAYOUT, sequence, 1024);
+            while (child.isAlive() || ids.size() < count) {
+                Assertions.assertTrue(ids.add(helper.genId()), "进程内ID重复");
+            }
+            Assertions.assertEquals(0, child.waitFor(), "子进程失败");
+        }
+        int parent = ids.size();
+        for (String line : Files.readAllLines(childIds)) {
+            Assertions.assertTrue(ids.add(Long.parseLong(line)), "进程间ID重复: " + line);
+        }
+        Assertions.assertEquals(parent + count, ids.size());
+    }
+
+    @Test
+    void testSharedRejectsPerProcessSequences(@TempDir Path dir) throws IOException {
+        try (MappedTickSequence sequence = new MappedTickSequence(dir.resolve("shared.seq"), LAYOUT.getBitsOfAutoincrement(), 1000, SIGNATURE)) {
+            SnowFlakeIdHelper helper = new SnowFlakeIdHelper(START_TIME, TimeUnit.MILLISECONDS, 1, 1, LAYOUT, sequence, 1024);
+            long now = System.currentTimeMillis();
+            helper.setTimeSource(new ManualTimeSource(now, TimeUnit.MILLISECONDS));
+            helper.setBitsOfShard(2);
+            Assertions.assertTrue(helper.isSharedSequence());
+            long id = helper.genId(now);
+            Assertions.assertEquals(now, helper.parseTimeInMillis(id), "共享序列上的显式时间应保留时间戳");
+            Assertions.assertTrue(helper.genIdForTenant(1) > id, "本租户应共用genId()的序列");
+            Assertions.assertTrue(helper.genIdForShard(0) > id, "分片0应共用genId()的序列");
+            Assertions.assertThrows(IllegalStateException.class, () -> helper.genIdForTenant(2), "其他租户的序列是进程内的");
+            Assertions.assertThrows(IllegalStateException.class, () -> helper.genIdForShard(1), "其他分片的序列是进程内的");
+            Assertions.assertThrows(IllegalStateException.class, () -> helper.genId(now - 60_000), "启动前的时间是进程内回填的");
+            helper.genId(now + 2);
+            Assertions.assertThrows(IllegalStateException.class, () -> helper.genId(now), "共享序列已越过的时间是进程内回填的");
+        }
+
+        SnowFlakeIdProperties properties = new SnowFlakeIdProperties();
+        properties.setSharedStateFile(dir.resolve("auto.seq").toString());
+        try (MappedTickSequence shared = SnowFlakeIdAutoConfig.createSharedSequence(properties)) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> SnowFlakeIdAutoConfig.createHelper(properties, TimeSource.SYSTEM, WorkerIdAssigner.IP, shared),
+                    "共享文件需要固定的nodeId");
+            properties.setNodeId(3);
+            Assertions.assertEquals(3, SnowFlakeIdAutoConfig.createHelper(properties, TimeSource.SYSTEM, WorkerIdAssigner.IP, shared).getNodeId());
+        }
+    }
+
+    /**
+     * another process sharing the node id and the file
+     */
+    static class Child {
+        public static void main(String[] args) throws IOException {
+            int count = Integer.parseInt(args[2]);
+            List<String> ids = new ArrayList<>(count);
+            try (MappedTickSequence sequence = new MappedTickSequence(Path.of(args[0]), LAYOUT.getBitsOfAutoincrement(), 1000, SIGNATURE)) {
+                SnowFlakeIdHelper helper = new SnowFlakeIdHelper(START_TIME, TimeUnit.MILLISECONDS, 1, 1, LAYOUT, sequence, 1024);
+                for (int i = 0; i < count; i++) {
+                    ids.add(String.valueOf(helper.genId()));
+                }
+            }
+            Files.write(Path.of(args[1]), ids);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+class ReactiveSnowFlakeIdHelperTest {
+    @Test
+    void testIds() {
+        // 6 bits of autoincrement, 5000 IDs span many ticks
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 6
+        );
+        ReactiveSnowFlakeIdHelper reactive = new ReactiveSnowFlakeIdHelper(helper, Schedulers.parallel(), 100);
+        List<Long> ids = reactive.ids(5000).collectList().block();
+        Assertions.assertNotNull(ids);
+        Assertions.assertEquals(5000, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            Assertions.assertTrue(ids.get(i) > ids.get(i - 1), "ID重复或未递增: " + ids.get(i));
+        }
+        Assertions.assertTrue(helper.getStats().getExhausted() > 0, "应等待下一时间单位");
+        Assertions.assertEquals(0, helper.getStats().getSpins() + helper.getStats().getParks(), "不应阻塞线程");
+
+        long[] batch = reactive.genIds(300).block();
+        Assertions.assertNotNull(batch);
+        Assertions.assertTrue(batch[0] > ids.get(ids.size() - 1), "批量ID应在之前的ID之后");
+        for (int i = 1; i < batch.length; i++) {
+            Assertions.assertTrue(batch[i] > batch[i - 1], "批量ID重复或未递增: " + batch[i]);
+        }
+    }
+
+    @Test
+    void testGenIdsAsync() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 4,
+                1024, false
+        );
+        long[] ids = helper.genIdsAsync(200).join();
+        Assertions.assertEquals(200, ids.length);
+        Assertions.assertEquals(200, Arrays.stream(ids).distinct().count(), "ID重复");
+
+        helper.setTimeSource(new ManualTimeSource(System.currentTimeMillis(), TimeUnit.MILLISECONDS));
+        helper.setOverflowPolicy(SequenceOverflowPolicy.FAIL);
+        CompletionException e = Assertions.assertThrows(CompletionException.class, () -> helper.genIdsAsync(100).join());
+        Assertions.assertInstanceOf(SequenceExhaustedException.class, e.getCause());
+    }
+
+    @Test
+    void testOneRetryPending() {
+        // 4 bits of autoincrement, the frozen clock uses up the tick after 16 IDs
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 4
+        );
+        ManualTimeSource clock = new ManualTimeSource(System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        helper.setTimeSource(clock);
+        ManualScheduler scheduler = new ManualScheduler();
+        ReactiveSnowFlakeIdHelper reactive = new ReactiveSnowFlakeIdHelper(helper, scheduler, 100);
+        List<Long> ids = new ArrayList<>();
+        BaseSubscriber<Long> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(16);
+            }
+
+            @Override
+            protected void hookOnNext(Long id) {
+                ids.add(id);
+            }
+        };
+        reactive.ids().subscribe(subscriber);
+        Assertions.assertEquals(16, ids.size());
+        for (int i = 0; i < 5; i++) {
+            subscriber.request(1);
+        }
+        Assertions.assertEquals(16, ids.size());
+        Assertions.assertEquals(1, scheduler.delayed.size(), "等待中的重试只应有一个");
+
+        clock.advance(1, TimeUnit.MILLISECONDS);
+        scheduler.delayed.remove(0).run();
+        Assertions.assertEquals(21, ids.size(), "重试应发出积压的ID");
+        Assertions.assertTrue(scheduler.delayed.isEmpty());
+
+        subscriber.request(100);
+        Assertions.assertEquals(32, ids.size());
+        Assertions.assertEquals(1, scheduler.delayed.size(), "重试执行后应能再次调度");
+        subscriber.cancel();
+        Assertions.assertTrue(scheduler.delayed.isEmpty(), "取消订阅应取消等待中的重试");
+    }
+
+    /**
+     * runs tasks at once, keeps delayed tasks until the test runs them
+     */
+    private static class ManualScheduler implements Scheduler {
+        private final List<Runnable> delayed = new ArrayList<>();
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            task.run();
+            return () -> {
+            };
+        }
+
+        @Override
+        public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+            delayed.add(task);
+            return () -> delayed.remove(task);
+        }
+
+        @Override
+        public Worker createWorker() {
+            return Schedulers.immediate().createWorker();
+        }
+    }
+}
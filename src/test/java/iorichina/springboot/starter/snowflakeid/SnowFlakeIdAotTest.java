@@ -0,0 +1,61 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.aot.test.generate.TestGenerationContext;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.aot.ApplicationContextAotGenerator;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.test.tools.CompileWithForkedClassLoader;
+import org.springframework.core.test.tools.TestCompiler;
+import org.springframework.javapoet.ClassName;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdAotTest {
+    static void configure(GenericApplicationContext context) {
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "snowflakeid.nodeId", "3",
+                "snowflakeid.generators.orders.timeUnit", "SECONDS",
+                "snowflakeid.generators.orders.bitsOfTime", "31",
+                "snowflakeid.generators.orders.bitsOfAutoincrement", "21")));
+    }
+
+    @Test
+    @CompileWithForkedClassLoader
+    @SuppressWarnings("unchecked")
+    void testAheadOfTime() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        configure(context);
+        context.register(SnowFlakeIdAutoConfig.class);
+        TestGenerationContext generationContext = new TestGenerationContext(SnowFlakeIdAotTest.class);
+        ClassName initializer = new ApplicationContextAotGenerator().processAheadOfTime(context, generationContext);
+        generationContext.writeGeneratedContent();
+
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(SnowFlakeIdProperties.class).test(generationContext.getRuntimeHints()),
+                "缺少配置绑定的反射提示");
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(SnowFlakeIdIdentifierGenerator.class).test(generationContext.getRuntimeHints()),
+                "缺少hibernate生成器的反射提示");
+
+        TestCompiler.forSystem().with(generationContext).compile(compiled -> {
+            try (GenericApplicationContext aot = new GenericApplicationContext()) {
+                configure(aot);
+                compiled.getInstance(ApplicationContextInitializer.class, initializer.reflectionName()).initialize(aot);
+                aot.refresh();
+
+                SnowFlakeIdHelper orders = BeanFactoryAnnotationUtils.qualifiedBeanOfType(aot.getBeanFactory(), SnowFlakeIdHelper.class, "orders");
+                Assertions.assertEquals(TimeUnit.SECONDS, orders.getUnit());
+                Assertions.assertEquals(3, orders.getNodeId());
+                Assertions.assertSame(orders, aot.getBean(SnowFlakeIdGenerators.class).get("orders"));
+                Assertions.assertSame(aot.getBean("snowFlakeIdHelper"), aot.getBean(SnowFlakeIdHelper.class), "默认生成器不是primary");
+                Assertions.assertTrue(orders.genId() > 0);
+            }
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.context.annotation.ImportCandidates;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class SnowFlakeIdAutoConfigImportsTest {
+    @Test
+    void testAutoConfigurationImports() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        List<Class<?>> configurations = new ArrayList<>();
+        for (String candidate : ImportCandidates.load(AutoConfiguration.class, classLoader)) {
+            if (!candidate.startsWith(SnowFlakeIdAutoConfig.class.getPackageName())) {
+                continue;
+            }
+            Assertions.assertTrue(ClassUtils.isPresent(candidate, classLoader), "自动配置类不存在: " + candidate);
+            configurations.add(ClassUtils.resolveClassName(candidate, classLoader));
+        }
+        Assertions.assertTrue(configurations.contains(SnowFlakeIdMetricsAutoConfig.class), "未导入指标自动配置");
+        Assertions.assertTrue(configurations.contains(SnowFlakeIdReactiveAutoConfig.class), "未导入响应式自动配置");
+
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(configurations.toArray(Class<?>[]::new)))
+                .withBean(SimpleMeterRegistry.class)
+                .withPropertyValues("snowflakeid.nodeId=3")
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+                    Assertions.assertEquals(1, context.getBeansOfType(SnowFlakeIdMetrics.class).size(), "指标bean未创建");
+                    Assertions.assertEquals(1, context.getBeansOfType(ReactiveSnowFlakeIdHelper.class).size(), "响应式bean未创建");
+                });
+    }
+}
@@ -0,0 +1,86 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class SnowFlakeIdCracResourceTest {
+    static SnowFlakeIdHelper helper(long nodeId, TimeSource timeSource) {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, nodeId, 40, 3, 8, 12
+        );
+        helper.setTimeSource(timeSource);
+        return helper;
+    }
+
+    static long nodeOf(SnowFlakeIdHelper helper, long id) {
+        return (id >>> helper.getLeftOfNode()) & helper.getMaxNodeNum();
+    }
+
+    @Test
+    void testRestore() {
+        ManualTimeSource clock = new ManualTimeSource(System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        SnowFlakeIdHelper helper = helper(5, clock);
+        helper.setOverflowPolicy(SequenceOverflowPolicy.BORROW);
+        long checkpoint = clock.currentTime(TimeUnit.MILLISECONDS);
+        long last = 0;
+        for (int i = 0; i < 3; i++) {
+            last = helper.genId();
+        }
+        Assertions.assertEquals(2, last & helper.getMaxAutoincrementNum());
+        Assertions.assertEquals(checkpoint, helper.parseTimeInMillis(helper.genIdForTenant(2)));
+
+        // a fixed node id is kept, the tick of the checkpoint is used up
+        Assertions.assertEquals(5, helper.restore(), "固定nodeId不应重新分配");
+        long id = helper.genId();
+        Assertions.assertEquals(checkpoint + 1, helper.parseTimeInMillis(id), "恢复后不应继续检查点的tick");
+        Assertions.assertEquals(0, id & helper.getMaxAutoincrementNum());
+        Assertions.assertEquals(checkpoint + 1, helper.parseTimeInMillis(helper.genIdForTenant(2)), "恢复后租户不应继续检查点的tick");
+
+        // the same node id assigned again never continues the checkpoint, copies restored from it would issue the same IDs
+        AtomicLong assigned = new AtomicLong(5);
+        helper.setWorkerIdAssigner(maxNodeNum -> assigned.get());
+        Assertions.assertEquals(5, helper.restore());
+        id = helper.genId();
+        Assertions.assertEquals(5, nodeOf(helper, id));
+        Assertions.assertEquals(checkpoint + 2, helper.parseTimeInMillis(id), "相同nodeId恢复后不应继续检查点的tick");
+
+        // a new node id moves past the checkpoint too, even on a clock behind it, borrowing within maxBorrowTicks
+        clock.advance(-2, TimeUnit.MILLISECONDS);
+        assigned.set(6);
+        Assertions.assertEquals(6, helper.restore());
+        id = helper.genId();
+        Assertions.assertEquals(6, nodeOf(helper, id), "恢复后nodeId未重新分配");
+        Assertions.assertEquals(checkpoint + 3, helper.parseTimeInMillis(id), "时钟落后时恢复后不应回到检查点之前");
+        Assertions.assertEquals(0, id & helper.getMaxAutoincrementNum());
+    }
+
+    @Test
+    void testCheckpointAndRestore(@TempDir Path directory) throws Exception {
+        FileLockWorkerIdAssigner assigner = new FileLockWorkerIdAssigner(directory, "app", maxNodeNum -> 7);
+        SnowFlakeIdHelper helper = helper(assigner.assign(255), TimeSource.SYSTEM);
+        helper.setWorkerIdAssigner(assigner);
+        SnowFlakeIdRingBuffer ringBuffer = new SnowFlakeIdRingBuffer(helper, 64, 50, 0, false);
+        SnowFlakeIdCracResource resource = new SnowFlakeIdCracResource(List.of(helper), List.of(ringBuffer), new MonotonicTimeSource(), assigner);
+
+        resource.beforeCheckpoint(null);
+        // another copy restored from the checkpoint takes the released node id first
+        try (FileLockWorkerIdAssigner copy = new FileLockWorkerIdAssigner(directory, "copy", maxNodeNum -> 7)) {
+            Assertions.assertEquals(7, copy.assign(255), "检查点前未释放nodeId");
+            resource.afterRestore(null);
+            Assertions.assertEquals(8, helper.getNodeId(), "恢复后未重新租用nodeId");
+            Assertions.assertEquals(8, nodeOf(helper, ringBuffer.genId()), "环中检查点前的ID未丢弃");
+        } finally {
+            ringBuffer.close();
+            assigner.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdDecoderTest {
+    @Test
+    void testDecode() {
+        Assertions.assertTrue(SnowFlakeIdDecoder.VECTORIZED, "测试应启用jdk.incubator.vector");
+        for (TimeUnit unit : new TimeUnit[]{TimeUnit.MILLISECONDS, TimeUnit.SECONDS, TimeUnit.MICROSECONDS}) {
+            SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                    LocalDateTime.of(2024, 1, 1, 0, 0),
+                    unit,
+                    5, 9, 40, 3, 8, 12
+            );
+            // not a multiple of any vector length, the tail goes scalar
+            long[] ids = new long[1003];
+            long base = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = helper.genId(base + i * 997L);
+            }
+            SnowFlakeIdDecoder decoder = new SnowFlakeIdDecoder(helper);
+            long[] times = new long[ids.length + 1];
+            long[] tenants = new long[ids.length + 1];
+            long[] nodes = new long[ids.length + 1];
+            long[] sequences = new long[ids.length + 1];
+            decoder.decode(ids, 0, times, tenants, nodes, sequences, 1, ids.length);
+            long[] scalar = new long[ids.length];
+            decoder.decodeScalar(ids, 0, scalar, null, null, null, 0, ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                Assertions.assertEquals(helper.parseTimeInMillis(ids[i]), times[i + 1], "时间解析不正确: " + unit);
+                Assertions.assertEquals(scalar[i], times[i + 1], "向量与标量结果不一致");
+                Assertions.assertEquals(5, tenants[i + 1], "tenantId解析不正确");
+                Assertions.assertEquals(9, nodes[i + 1], "nodeId解析不正确");
+                Assertions.assertEquals(ids[i] & helper.getMaxAutoincrementNum(), sequences[i + 1], "序列解析不正确");
+            }
+
+            LongBuffer buffer = ByteBuffer.allocateDirect(ids.length * Long.BYTES).asLongBuffer().put(ids).flip();
+            long[] bufferTimes = new long[ids.length];
+            long[] bufferNodes = new long[ids.length];
+            decoder.decode(buffer, bufferTimes, null, bufferNodes, null, 0);
+            Assertions.assertEquals(0, buffer.position(), "不应改变LongBuffer的position");
+            for (int i = 0; i < ids.length; i++) {
+                Assertions.assertEquals(times[i + 1], bufferTimes[i]);
+                Assertions.assertEquals(9, bufferNodes[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdEndpointTest {
+    private static final long NOW = 1_760_000_000_000L;
+
+    private static SnowFlakeIdHelper helper(ManualTimeSource clock, long bitsOfAutoincrement) {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, bitsOfAutoincrement
+        );
+        helper.setTimeSource(clock);
+        return helper;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDescribe() {
+        SnowFlakeIdHelper helper = helper(new ManualTimeSource(NOW, TimeUnit.MILLISECONDS), 12);
+        helper.genIds(3);
+        Map<String, Object> description = SnowFlakeIdEndpoint.describe(helper);
+        Map<String, Object> layout = (Map<String, Object>) description.get("layout");
+        Assertions.assertEquals("PACKED", layout.get("strategy"));
+        Assertions.assertEquals("MILLISECONDS", layout.get("timeUnit"));
+        Assertions.assertEquals("2024-01-01T00:00", layout.get("startTime"));
+        Assertions.assertEquals(40L, layout.get("bitsOfTime"));
+        Assertions.assertEquals(1L, description.get("tenantId"));
+        Assertions.assertEquals(1L, description.get("nodeId"));
+        Assertions.assertEquals(4096L - 3, description.get("remainingSequence"), "当前毫秒剩余序列错误");
+
+        // 2^40 ms is about 34.8 years from 2024-01-01, NOW is in 2025-10
+        Map<String, Object> runway = (Map<String, Object>) description.get("runway");
+        double years = (Double) runway.get("years");
+        Assertions.assertTrue(years > 32.5 && years < 33.5, "剩余年数错误: " + years);
+        Assertions.assertTrue(((String) runway.get("endTime")).startsWith("2058-"), "时间位耗尽时间错误: " + runway.get("endTime"));
+        Assertions.assertEquals(3L, ((Map<String, Object>) description.get("counters")).get("issued"));
+        Assertions.assertEquals(List.of(), description.get("recentAnomalies"));
+    }
+
+    @Test
+    void testRecentAnomalies() {
+        ManualTimeSource clock = new ManualTimeSource(NOW, TimeUnit.MILLISECONDS);
+        SnowFlakeIdHelper helper = helper(clock, 2);
+        helper.genId();
+        clock.advance(-3, TimeUnit.MILLISECONDS);
+        // calls of one regression are kept once
+        helper.genId();
+        helper.genId();
+        clock.advance(4, TimeUnit.MILLISECONDS);
+        helper.setOverflowPolicy(SequenceOverflowPolicy.FAIL);
+        helper.genIds(4);
+        Assertions.assertThrows(SequenceExhaustedException.class, helper::genId);
+        Assertions.assertThrows(SequenceExhaustedException.class, helper::genId);
+
+        List<SnowFlakeIdAnomaly> anomalies = helper.getStats().getRecentAnomalies();
+        Assertions.assertEquals(2, anomalies.size(), "异常历史未去重");
+        Assertions.assertEquals(SnowFlakeIdAnomaly.Type.SEQUENCE_FAILURE, anomalies.get(0).getType(), "最新的异常应在最前");
+        Assertions.assertEquals(SnowFlakeIdAnomaly.Type.CLOCK_REGRESSION, anomalies.get(1).getType());
+        Assertions.assertEquals(NOW, anomalies.get(1).getTime());
+    }
+
+    @Test
+    void testRecentAnomaliesBounded() {
+        ManualTimeSource clock = new ManualTimeSource(NOW, TimeUnit.MILLISECONDS);
+        SnowFlakeIdHelper helper = helper(clock, 12);
+        for (int i = 0; i < SnowFlakeIdStats.RECENT_ANOMALIES + 5; i++) {
+            clock.advance(2, TimeUnit.MILLISECONDS);
+            helper.genId();
+            clock.advance(-1, TimeUnit.MILLISECONDS);
+            helper.genId();
+        }
+        List<SnowFlakeIdAnomaly> anomalies = helper.getStats().getRecentAnomalies();
+        Assertions.assertEquals(SnowFlakeIdStats.RECENT_ANOMALIES, anomalies.size(), "异常历史未限制大小");
+        Assertions.assertEquals(NOW + 2L * (SnowFlakeIdStats.RECENT_ANOMALIES + 5) - (SnowFlakeIdStats.RECENT_ANOMALIES + 4), anomalies.get(0).getTime());
+    }
+
+    @Test
+    void testSelector() {
+        SnowFlakeIdHelper helper = helper(new ManualTimeSource(NOW, TimeUnit.MILLISECONDS), 12);
+        SnowFlakeIdHelper orders = new SnowFlakeIdHelper(LocalDateTime.of(2024, 1, 1, 0, 0), TimeUnit.SECONDS, 1, 2, 31, 3, 8, 21, 100, false);
+        SnowFlakeIdEndpoint endpoint = new SnowFlakeIdEndpoint(helper, new SnowFlakeIdGenerators(Map.of("orders", orders)));
+        Assertions.assertEquals(List.of("default", "orders"), List.copyOf(endpoint.helpers().keySet()));
+        Assertions.assertNotNull(endpoint.helper("default"));
+        Assertions.assertEquals("CACHE", ((Map<?, ?>) endpoint.helper("orders").get("layout")).get("strategy"));
+        Assertions.assertNull(endpoint.helper("none"), "不存在的生成器应返回404");
+        Assertions.assertNull(new SnowFlakeIdEndpoint(helper, null).helper("orders"));
+    }
+}
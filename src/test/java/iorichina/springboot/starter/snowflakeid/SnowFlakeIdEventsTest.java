@@ -0,0 +1,109 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdEventsTest {
+    private static final long NOW = 1_760_000_000_000L;
+
+    private static List<RecordedEvent> record(boolean enabled, Runnable runnable) throws IOException {
+        Path path = Files.createTempFile("snowflakeid", ".jfr");
+        try (Recording recording = new Recording()) {
+            if (enabled) {
+                for (String name : List.of("SequenceWait", "ClockRegression", "SequenceCache", "LockFallback")) {
+                    recording.enable("iorichina.snowflakeid." + name).withThreshold(Duration.ZERO);
+                }
+            }
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(path);
+            return RecordingFile.readAllEvents(path).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("iorichina.snowflakeid."))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static SnowFlakeIdHelper packedHelper(ManualTimeSource clock) {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 2
+        );
+        helper.setTimeSource(clock);
+        return helper;
+    }
+
+    private static void anomalies(SnowFlakeIdHelper helper, ManualTimeSource clock) {
+        helper.setOverflowPolicy(SequenceOverflowPolicy.BORROW);
+        for (int i = 0; i < 5; i++) {
+            helper.genId();
+        }
+        clock.advance(-1, TimeUnit.MILLISECONDS);
+        helper.genId();
+    }
+
+    @Test
+    void testDisabledByDefault() throws IOException {
+        ManualTimeSource clock = new ManualTimeSource(NOW, TimeUnit.MILLISECONDS);
+        SnowFlakeIdHelper helper = packedHelper(clock);
+        Assertions.assertEquals(List.of(), record(false, () -> anomalies(helper, clock)), "事件默认应关闭");
+    }
+
+    @Test
+    void testSequenceWaitAndClockRegression() throws IOException {
+        ManualTimeSource clock = new ManualTimeSource(NOW, TimeUnit.MILLISECONDS);
+        SnowFlakeIdHelper helper = packedHelper(clock);
+        List<RecordedEvent> events = record(true, () -> anomalies(helper, clock));
+
+        RecordedEvent wait = events.stream().filter(event -> event.getEventType().getName().endsWith("SequenceWait")).findFirst().orElseThrow();
+        Assertions.assertEquals("BORROW", wait.getString("policy"));
+        Assertions.assertEquals(NOW, wait.getLong("requestedTime"));
+        Assertions.assertEquals(NOW + 1, wait.getLong("issuedTime"), "借用的时间错误");
+
+        RecordedEvent regression = events.stream().filter(event -> event.getEventType().getName().endsWith("ClockRegression")).findFirst().orElseThrow();
+        Assertions.assertEquals("LAST_TICK", regression.getString("outcome"));
+        Assertions.assertEquals(1, regression.getLong("regression"), "回拨时长错误");
+    }
+
+    @Test
+    void testSequenceCache() throws IOException {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(LocalDateTime.of(2024, 1, 1, 0, 0), TimeUnit.MILLISECONDS, 1, 1, 40, 3, 8, 12, 1, false);
+        ManualTimeSource clock = new ManualTimeSource(NOW, TimeUnit.MILLISECONDS);
+        helper.setTimeSource(clock);
+        List<RecordedEvent> events = record(true, () -> {
+            helper.genId();
+            clock.advance(1, TimeUnit.MILLISECONDS);
+            helper.genId();
+            helper.getSequenceCache().cleanUp();
+        });
+        List<String> actions = events.stream().map(event -> event.getString("action")).toList();
+        Assertions.assertEquals(2, actions.stream().filter("LOAD"::equals).count(), "缓存加载事件缺失");
+        Assertions.assertTrue(actions.contains("SIZE") || actions.contains("EXPIRED"), "缓存淘汰事件缺失: " + actions);
+    }
+
+    @Test
+    void testLockFallback() throws IOException {
+        RecyclableAtomicLong sequence = new RecyclableAtomicLong(1, 0);
+        List<RecordedEvent> events = record(true, () -> {
+            for (int i = 0; i < 4; i++) {
+                sequence.getAndIncrementWithRecycle();
+            }
+        });
+        Assertions.assertEquals(sequence.getLockFallbacks(), events.size(), "锁回退事件数错误");
+        Assertions.assertEquals(1, events.get(0).getLong("threshold"));
+    }
+}
@@ -0,0 +1,89 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdGeneratorsTest {
+    static class Domains {
+        @Autowired
+        SnowFlakeIdHelper helper;
+        @Autowired
+        @Qualifier("orders")
+        SnowFlakeIdHelper orders;
+        @Autowired
+        @Qualifier("logs")
+        SnowFlakeIdHelper logs;
+    }
+
+    @Test
+    void testGenerators() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                    "snowflakeid.nodeId", "3",
+                    "snowflakeid.generators.orders.timeUnit", "SECONDS",
+                    "snowflakeid.generators.orders.bitsOfTime", "31",
+                    "snowflakeid.generators.orders.bitsOfAutoincrement", "21",
+                    "snowflakeid.generators.orders.strategy", "STRIPED",
+                    "snowflakeid.generators.logs.tenant-id", "5")));
+            context.registerBean(SimpleMeterRegistry.class);
+            context.register(SnowFlakeIdAutoConfig.class, SnowFlakeIdMetricsAutoConfig.class, Domains.class);
+            context.refresh();
+
+            Domains domains = context.getBean(Domains.class);
+            Assertions.assertSame(context.getBean("snowFlakeIdHelper"), domains.helper, "默认生成器不是primary");
+            Assertions.assertNotSame(domains.helper, domains.orders);
+            Assertions.assertNotSame(domains.orders, domains.logs);
+
+            Assertions.assertEquals(TimeUnit.SECONDS, domains.orders.getUnit());
+            Assertions.assertEquals(21, domains.orders.getBitsOfAutoincrement());
+            Assertions.assertInstanceOf(StripedTickSequence.class, domains.orders.getPackedSequence());
+            Assertions.assertEquals(3, domains.orders.getNodeId(), "未继承snowflakeid.nodeId");
+            Assertions.assertEquals(TimeUnit.MILLISECONDS, domains.logs.getUnit());
+            Assertions.assertEquals(5, domains.logs.getTenantId());
+            Assertions.assertEquals(0, domains.helper.getTenantId());
+
+            SnowFlakeIdGenerators generators = context.getBean(SnowFlakeIdGenerators.class);
+            Assertions.assertSame(domains.orders, generators.get("orders"));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> generators.get("events"));
+
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            context.getBeansOfType(MeterBinder.class).values().forEach(binder -> binder.bindTo(registry));
+            domains.orders.genIds(7);
+            Assertions.assertEquals(7, registry.get("snowflakeid.ids.issued").tag("name", "orders").functionCounter().count());
+            Assertions.assertNotNull(registry.find("snowflakeid.ids.issued").tag("name", "default").functionCounter());
+        }
+    }
+
+    @Test
+    void testStrategyOfUseCache() {
+        SnowFlakeIdProperties properties = new SnowFlakeIdProperties();
+        Assertions.assertEquals("PACKED", SnowFlakeIdAutoConfig.strategy(properties));
+        properties.setUseCache(false);
+        Assertions.assertEquals("PACKED", SnowFlakeIdAutoConfig.strategy(properties), "useCache=false已弃用, 应使用PACKED");
+        properties.setNodeId(1);
+        Assertions.assertNotNull(SnowFlakeIdAutoConfig.createHelper(properties, TimeSource.SYSTEM, WorkerIdAssigner.IP, null).getPackedSequence(),
+                "useCache=false应启动为PACKED");
+        properties.setUseCache(null);
+        properties.setStrategy("RECYCLABLE");
+        Assertions.assertEquals("PACKED", SnowFlakeIdAutoConfig.strategy(properties), "RECYCLABLE已弃用, 应使用PACKED");
+        properties.setStrategy("");
+        properties.setUseCache(true);
+        Assertions.assertEquals("CACHE", SnowFlakeIdAutoConfig.strategy(properties));
+        properties.setStrategy("CACHE");
+        Assertions.assertEquals("CACHE", SnowFlakeIdAutoConfig.strategy(properties));
+        properties.setStrategy("PACKED");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SnowFlakeIdAutoConfig.strategy(properties), "useCache与strategy冲突应启动失败");
+        properties.setUseCache(null);
+        Assertions.assertEquals("PACKED", SnowFlakeIdAutoConfig.strategy(properties));
+    }
+}
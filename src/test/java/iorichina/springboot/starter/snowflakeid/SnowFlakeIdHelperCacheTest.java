@@ -7,6 +7,7 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -21,25 +22,26 @@ class SnowFlakeIdHelperCacheTest {
                 1, 1, 40, 3, 8, 12,
                 1024, true
         );
-        Set<Long> ids = new HashSet<>();
-        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
-        for (int i = 0; i < 4000; i++) {
-            executorService.submit(() -> {
-                long id = helper.genId();
-                if (!ids.add(id)) {
-                    Assertions.fail("ID重复: " + id + "; " + helper.parseTimeInMillis(id));
-                }
-            });
-        }
-        long timeMillis = System.currentTimeMillis();
-        System.out.println("timeMillis:"+timeMillis);
-        for (int i = 0; i < 9000; i++) {
-            executorService.submit(() -> {
-                long id = helper.genId(timeMillis);
-                if (!ids.add(id)) {
-                    Assertions.fail("ID重复: " + id + "; " + helper.parseTimeInMillis(id));
-                }
-            });
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 4000; i++) {
+                executorService.submit(() -> {
+                    long id = helper.genId();
+                    if (!ids.add(id)) {
+                        Assertions.fail("ID重复: " + id + "; " + helper.parseTimeInMillis(id));
+                    }
+                });
+            }
+            long timeMillis = System.currentTimeMillis();
+            System.out.println("timeMillis:"+timeMillis);
+            for (int i = 0; i < 9000; i++) {
+                executorService.submit(() -> {
+                    long id = helper.genId(timeMillis);
+                    if (!ids.add(id)) {
+                        Assertions.fail("ID重复: " + id + "; " + helper.parseTimeInMillis(id));
+                    }
+                });
+            }
         }
         // 生成1000个ID，检查唯一性
         for (int i = 0; i < 4000; i++) {
@@ -75,5 +77,54 @@ class SnowFlakeIdHelperCacheTest {
         long t2 = helper.parseTimeInMillis(id2);
         Assertions.assertTrue(Math.abs(t2 - t1) >= 1000);
     }
-}
 
+    @Test
+    void testGenIdWithCache_SequenceExhausted() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 4,
+                1024, true
+        );
+        long past = System.currentTimeMillis() - 10_000;
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 16; i++) {
+            Assertions.assertTrue(ids.add(helper.genId(past)));
+        }
+        // 历史时间无法等待下一毫秒, 不能静默回绕
+        Assertions.assertThrows(SequenceExhaustedException.class, () -> helper.genId(past));
+        Assertions.assertEquals(1, helper.getStats().getFailures());
+
+        helper.setOverflowPolicy(SequenceOverflowPolicy.BORROW);
+        helper.setMaxBorrowTicks(2);
+        for (int i = 0; i < 32; i++) {
+            Assertions.assertTrue(ids.add(helper.genId(past)), "借用的ID重复");
+        }
+        Assertions.assertThrows(SequenceExhaustedException.class, () -> helper.genId(past));
+        Assertions.assertTrue(helper.getStats().getBorrows() >= 32);
+    }
+
+    @Test
+    void testGenIdsWithCache() {
+        // 10 bits of autoincrement, the batch must be split across ticks
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 10,
+                1024, true
+        );
+        long first = helper.genId();
+        long[] ids = helper.genIds(5000);
+        Assertions.assertTrue(ids[0] > first, "批量ID应在genId()之后");
+        for (int i = 1; i < ids.length; i++) {
+            Assertions.assertTrue(ids[i] > ids[i - 1], "批量ID重复或未递增: " + ids[i]);
+        }
+        long[] dst = new long[2000];
+        int filled = helper.tryFill(dst, 0, dst.length);
+        Assertions.assertTrue(filled > 0 && filled <= 1024, "tryFill不应跨越时间单位: " + filled);
+        for (int i = 1; i < filled; i++) {
+            Assertions.assertEquals(dst[i - 1] + 1, dst[i], "tryFill应预留连续区间");
+        }
+        Assertions.assertEquals(5001 + filled, helper.getStats().getIssued());
+    }
+}
@@ -0,0 +1,158 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class SnowFlakeIdHelperClockTest {
+    private static final long NOW = 1_760_000_000_000L;
+
+    private SnowFlakeIdHelper packedHelper(ManualTimeSource clock) {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 12
+        );
+        helper.setTimeSource(clock);
+        return helper;
+    }
+
+    @Test
+    void testManualTimeSource() {
+        ManualTimeSource clock = new ManualTimeSource(NOW, TimeUnit.MILLISECONDS);
+        SnowFlakeIdHelper helper = packedHelper(clock);
+        long id1 = helper.genId();
+        Assertions.assertEquals(NOW, helper.parseTimeInMillis(id1));
+        clock.advance(5, TimeUnit.MILLISECONDS);
+        long id2 = helper.genId();
+        Assertions.assertEquals(NOW + 5, helper.parseTimeInMillis(id2));
+        Assertions.assertEquals(0, id2 & helper.getMaxAutoincrementNum(), "新毫秒序列应从0开始");
+    }
+
+    @Test
+    void testClockRegression_LastTick() {
+        ManualTimeSource clock = new ManualTimeSource(NOW, TimeUnit.MILLISECONDS);
+        SnowFlakeIdHelper helper = packedHelper(clock);
+        long id1 = helper.genId();
+        clock.advance(-3, TimeUnit.MILLISECONDS);
+        long id2 = helper.genId();
+        Assertions.assertTrue(id2 > id1, "时钟回拨后ID应继续递增");
+        Assertions.assertEquals(NOW, helper.parseTimeInMillis(id2), "应继续使用最后的毫秒");
+        for (int i = 0; i < 100; i++) {
+            helper.genId();
+        }
+        Assertions.assertEquals(1, helper.getStats().getClockRegressions(), "同一次回拨只应计一次");
+        Assertions.assertEquals(3, helper.getStats().getClockRegressionTicks(), "同一次回拨的幅度只应计一次");
+        Assertions.assertEquals(3, helper.getStats().getMaxClockRegressionTicks());
+
+        clock.setTime(NOW + 10, TimeUnit.MILLISECONDS);
+        helper.genId();
+        clock.advance(-4, TimeUnit.MILLISECONDS);
+        helper.genId();
+        helper.genId();
+        Assertions.assertEquals(2, helper.getStats().getClockRegressions(), "新的回拨应再计一次");
+        Assertions.assertEquals(7, helper.getStats().getClockRegressionTicks());
+        Assertions.assertEquals(4, helper.getStats().getMaxClockRegressionTicks());
+    }
+
+    @Test
+    void testClockRegression_Reject() {
+        ManualTimeSource clock = new ManualTimeSource(NOW, TimeUnit.MILLISECONDS);
+        SnowFlakeIdHelper helper = packedHelper(clock);
+        helper.setClockRegressionPolicy(ClockRegressionPolicy.REJECT);
+        helper.genId();
+        clock.advance(-1, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertThrows(ClockMovedBackwardsException.class, helper::genId);
+        }
+        Assertions.assertEquals(1, helper.getStats().getClockRegressions(), "同一次回拨只应计一次");
+        Assertions.assertEquals(1, helper.getStats().getClockRegressionTicks(), "同一次回拨的幅度只应计一次");
+        Assertions.assertEquals(1, helper.getStats().getRecentAnomalies().size());
+        clock.advance(1, TimeUnit.MILLISECONDS);
+        Assertions.assertEquals(NOW, helper.parseTimeInMillis(helper.genId()));
+    }
+
+    @Test
+    void testClockRegression_Wait() {
+        ManualTimeSource clock = new ManualTimeSource(NOW, TimeUnit.MILLISECONDS);
+        SnowFlakeIdHelper helper = packedHelper(clock);
+        helper.setClockRegressionPolicy(ClockRegressionPolicy.WAIT);
+        helper.setMaxClockRegressionWaitMillis(1000);
+        long id1 = helper.genId();
+        clock.advance(-2000, TimeUnit.MILLISECONDS);
+        Assertions.assertThrows(ClockMovedBackwardsException.class, helper::genId, "超过等待阈值应拒绝");
+
+        clock.setTime(NOW - 5, TimeUnit.MILLISECONDS);
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            clock.setTime(NOW + 1, TimeUnit.MILLISECONDS);
+        });
+        long id2 = helper.genId();
+        Assertions.assertTrue(id2 > id1);
+        Assertions.assertEquals(NOW + 1, helper.parseTimeInMillis(id2));
+        Assertions.assertEquals(1, helper.getStats().getClockRegressions(), "等待同一次回拨只应计一次");
+        Assertions.assertEquals(2000, helper.getStats().getClockRegressionTicks(), "同一次回拨的幅度只应计一次");
+        Assertions.assertEquals(2000, helper.getStats().getMaxClockRegressionTicks());
+    }
+
+    @Test
+    void testClockRegression_RacingThreadNeverLowersLastClock() throws InterruptedException {
+        // the racing thread reads NOW and is overtaken by NOW + 5 before it raises the last clock time
+        AtomicLong time = new AtomicLong(NOW);
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch overtaken = new CountDownLatch(1);
+        Thread[] racing = new Thread[1];
+        TimeSource clock = unit -> {
+            long now = time.get();
+            if (Thread.currentThread() == racing[0]) {
+                read.countDown();
+                try {
+                    overtaken.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+            return now;
+        };
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 12
+        );
+        helper.setTimeSource(clock);
+        helper.setClockRegressionPolicy(ClockRegressionPolicy.REJECT);
+        racing[0] = Thread.ofVirtual().unstarted(helper::genId);
+        racing[0].start();
+        read.await();
+        time.set(NOW + 5);
+        helper.genId();
+        overtaken.countDown();
+        racing[0].join();
+
+        time.set(NOW + 1);
+        Assertions.assertThrows(ClockMovedBackwardsException.class, helper::genId, "竞争线程不应降低最后的时钟");
+    }
+
+    @Test
+    void testMonotonicTimeSource_Microseconds() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MICROSECONDS,
+                1, 1, 50, 1, 4, 8
+        );
+        helper.setTimeSource(new MonotonicTimeSource());
+        long last = -1;
+        for (int i = 0; i < 10000; i++) {
+            long id = helper.genId();
+            Assertions.assertTrue(id > last);
+            last = id;
+        }
+        Assertions.assertTrue(Math.abs(helper.parseTimeInMillis(last) - System.currentTimeMillis()) < 1000);
+    }
+}
@@ -0,0 +1,355 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdHelperPackedTest {
+    @Test
+    void testGenIdWithPacked() throws InterruptedException {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 12
+        );
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                executorService.submit(() -> {
+                    long last = -1;
+                    for (int j = 0; j < 10000; j++) {
+                        long id = helper.genId();
+                        Assertions.assertTrue(id > last, "ID未递增: " + id);
+                        Assertions.assertTrue(ids.add(id), "ID重复: " + id);
+                        last = id;
+                    }
+                });
+            }
+        }
+        Assertions.assertEquals(80000, ids.size());
+        long id = helper.genId();
+        Assertions.assertTrue(Math.abs(helper.parseTimeInMillis(id) - System.currentTimeMillis()) < 1000, "时间戳解析不正确");
+    }
+
+    @Test
+    void testGenIdWithPacked_SequenceExhausted() {
+        // 4 bits of autoincrement only has 16 sequence in each millis
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 4
+        );
+        long last = -1;
+        for (int i = 0; i < 1000; i++) {
+            long id = helper.genId();
+            Assertions.assertTrue(id > last, "ID重复或未递增: " + id);
+            last = id;
+        }
+    }
+
+    @Test
+    void testGenIdWithPacked_OverflowPolicy() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.SECONDS,
+                1, 1, 31, 3, 8, 4
+        );
+        helper.setOverflowPolicy(SequenceOverflowPolicy.FAIL);
+        Assertions.assertThrows(SequenceExhaustedException.class, () -> {
+            for (int i = 0; i < 100; i++) {
+                helper.genId();
+            }
+        });
+        Assertions.assertEquals(1, helper.getStats().getFailures());
+
+        helper.setOverflowPolicy(SequenceOverflowPolicy.BORROW);
+        helper.setMaxBorrowTicks(5);
+        long last = -1;
+        for (int i = 0; i < 80; i++) {
+            long id = helper.genId();
+            Assertions.assertTrue(id > last, "借用的ID重复或未递增");
+            last = id;
+        }
+        Assertions.assertTrue(helper.getStats().getBorrows() > 0);
+    }
+
+    @Test
+    void testExhaustedTick() {
+        // 4 bits of autoincrement, tick 7 is used up in one range
+        PackedAtomicLong packed = new PackedAtomicLong(4);
+        StripedTickSequence striped = new StripedTickSequence(4, 1);
+        BackfillTickSequence backfill = new BackfillTickSequence(4, 16);
+        for (TickSequence sequence : new TickSequence[]{packed, striped, backfill}) {
+            Assertions.assertEquals(16, sequence.rangeOf(sequence.getAndAddWithTick(7, 16), 16));
+            long result = sequence.getAndIncrementWithTick(7);
+            Assertions.assertTrue(TickSequence.isExhausted(result), "用完的tick应返回负数: " + sequence);
+            Assertions.assertEquals(7, TickSequence.exhaustedTick(result), "应返回用完的tick: " + sequence);
+        }
+        Assertions.assertEquals(7, TickSequence.exhaustedTick(packed.getAndIncrementWithTick(5)), "旧tick应返回最后用完的tick");
+        Assertions.assertEquals(7, TickSequence.exhaustedTick(striped.getAndIncrementWithTick(5)), "旧tick应返回最后用完的tick");
+        Assertions.assertEquals(8, packed.tickOf(packed.getAndIncrementWithTick(8)));
+    }
+
+    @Test
+    void testGenIdWithPacked_BorrowJumpsOverExhaustedTicks() {
+        long now = 1_760_000_000L;
+        ManualTimeSource clock = new ManualTimeSource(now, TimeUnit.SECONDS);
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.SECONDS,
+                1, 1, 31, 3, 8, 4
+        );
+        helper.setTimeSource(clock);
+        helper.setOverflowPolicy(SequenceOverflowPolicy.BORROW);
+        helper.setMaxBorrowTicks(5);
+        // the clock stays at now, each used up tick is borrowed once from the tick of the word
+        long last = -1;
+        for (int i = 0; i < 16 * 4; i++) {
+            long id = helper.genId();
+            Assertions.assertTrue(id > last, "借用的ID重复或未递增");
+            Assertions.assertEquals(now + i / 16, helper.parseTimeInMillis(id) / 1000, "应直接跳过用完的tick");
+            last = id;
+        }
+        // one borrow from the clock, the next ticks are tried straight from the used up tick of the word
+        Assertions.assertEquals(1, helper.getStats().getBorrows());
+        Assertions.assertEquals(3, helper.getStats().getExhausted());
+    }
+
+    @Test
+    void testGenIdWithPacked_ExplicitTime() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 12
+        );
+        long now = System.currentTimeMillis();
+        long id1 = helper.genId(now);
+        long id2 = helper.genId();
+        Assertions.assertTrue(id2 > id1, "当前时间ID应与genId()共用序列");
+        long past = now - 10_000;
+        long id3 = helper.genId(past);
+        Assertions.assertEquals(past, helper.parseTimeInMillis(id3), "历史时间戳解析不正确");
+    }
+
+    @Test
+    void testGenIdWithPacked_FutureTime() {
+        long now = 1_760_000_000L;
+        ManualTimeSource clock = new ManualTimeSource(now, TimeUnit.SECONDS);
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.SECONDS,
+                1, 1, 31, 3, 8, 21
+        );
+        helper.setTimeSource(clock);
+        long future = helper.genId(now + 2, TimeUnit.SECONDS);
+        clock.advance(2, TimeUnit.SECONDS);
+        long id = helper.genId();
+        Assertions.assertNotEquals(future, id, "未来时间ID与之后的genId()重复");
+        Assertions.assertTrue(id > future, "未来时间应与genId()共用序列");
+        long scheduled = helper.genId(now + 60, TimeUnit.SECONDS);
+        Assertions.assertEquals((now + 60) * 1000, helper.parseTimeInMillis(scheduled), "远未来时间应保持时间戳");
+    }
+
+    @Test
+    void testGenIdWithPacked_FarFutureTime() {
+        for (int stripes : new int[]{1, 2}) {
+            long now = 1_760_000_000_000L;
+            ManualTimeSource clock = new ManualTimeSource(now, TimeUnit.MILLISECONDS);
+            SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                    LocalDateTime.of(2024, 1, 1, 0, 0),
+                    TimeUnit.MILLISECONDS,
+                    1, 1, 40, 3, 8, 4, stripes, 16
+            );
+            helper.setTimeSource(clock);
+            helper.setOverflowPolicy(SequenceOverflowPolicy.FAIL);
+            Set<Long> ids = new HashSet<>();
+            ids.add(helper.genId());
+            long far = now + 1000;
+            for (int i = 0; i < 5; i++) {
+                long id = helper.genId(far);
+                Assertions.assertEquals(far, helper.parseTimeInMillis(id), "远未来时间应保持时间戳");
+                Assertions.assertTrue(ids.add(id), "远未来时间ID重复: " + id);
+            }
+            // far keeps its slot until the clock reaches it
+            Assertions.assertThrows(SequenceExhaustedException.class, () -> helper.genId(far + 16), "槽位被未到达的时间占用时应用尽");
+
+            clock.advance(1000, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < 11; i++) {
+                long id = helper.genId();
+                Assertions.assertEquals(far, helper.parseTimeInMillis(id));
+                Assertions.assertTrue(ids.add(id), "时钟到达后genId()与远未来时间ID重复: " + id);
+            }
+            Assertions.assertThrows(SequenceExhaustedException.class, helper::genId, "16个序列应已用尽");
+            Assertions.assertEquals(17, ids.size());
+        }
+    }
+
+    @Test
+    void testGenIdWithPacked_PastTimeKeepsTimestamp() {
+        long now = 1_760_000_000_000L;
+        ManualTimeSource clock = new ManualTimeSource(now, TimeUnit.MILLISECONDS);
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 12
+        );
+        helper.setTimeSource(clock);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(helper.genId());
+        }
+        clock.advance(5, TimeUnit.MILLISECONDS);
+        ids.add(helper.genId());
+        // packedSequence is on now + 5, older ticks continue in backfillSequence after the IDs of genId()
+        for (long time : new long[]{now, now + 2, now + 5, now}) {
+            long id = helper.genId(time);
+            Assertions.assertEquals(time, helper.parseTimeInMillis(id), "显式时间的ID时间戳不正确");
+            Assertions.assertTrue(ids.add(id), "显式时间ID与genId()重复: " + id);
+        }
+        Assertions.assertTrue(ids.add(helper.genId()));
+        Assertions.assertEquals(9, ids.size());
+    }
+
+    @Test
+    void testGenIdsWithPacked() {
+        // 10 bits of autoincrement, the batch must be split across ticks
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 10
+        );
+        long first = helper.genId();
+        long[] ids = helper.genIds(5000);
+        Assertions.assertTrue(ids[0] > first, "批量ID应在genId()之后");
+        for (int i = 1; i < ids.length; i++) {
+            Assertions.assertTrue(ids[i] > ids[i - 1], "批量ID重复或未递增: " + ids[i]);
+        }
+        long[] dst = new long[10];
+        helper.fill(dst, 2, 5);
+        Assertions.assertEquals(0, dst[0]);
+        Assertions.assertEquals(0, dst[7]);
+        Assertions.assertTrue(dst[2] > ids[ids.length - 1]);
+        Assertions.assertEquals(100, helper.genIdStream(100).distinct().count());
+    }
+
+    @Test
+    void testGenIdWithStriped() throws InterruptedException {
+        // 6 bits of autoincrement in 8 stripes, stripes are used up and stolen frequently
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 6,
+                8, 1024
+        );
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executorService = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 16; i++) {
+                executorService.submit(() -> {
+                    for (int j = 0; j < 2000; j++) {
+                        Assertions.assertTrue(ids.add(helper.genId()), "ID重复");
+                    }
+                    for (long id : helper.genIds(500)) {
+                        Assertions.assertTrue(ids.add(id), "批量ID重复: " + id);
+                    }
+                });
+            }
+        }
+        Assertions.assertEquals(16 * 2500, ids.size());
+    }
+
+    @Test
+    void testStripedTickOrder() {
+        // 2 stripes of 8, one thread always starts from the same home stripe
+        StripedTickSequence sequence = new StripedTickSequence(4, 2);
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertEquals(6, sequence.tickOf(sequence.getAndIncrementWithTick(6)));
+        }
+        // home stripe is used up on tick 6 and the sibling is still before tick 5
+        long stolen = sequence.getAndIncrementWithTick(5);
+        Assertions.assertFalse(TickSequence.isExhausted(stolen));
+        Assertions.assertEquals(6, sequence.tickOf(stolen), "从落后的条带窃取时tick回退");
+    }
+
+    @Test
+    void testGenIdWithPacked_Backfill() {
+        // window of 16 ticks of 4 bits of autoincrement
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 4,
+                1, 16
+        );
+        helper.setOverflowPolicy(SequenceOverflowPolicy.FAIL);
+        long past = System.currentTimeMillis() - 60_000;
+        Set<Long> ids = new HashSet<>();
+        for (int tick = 0; tick < 16; tick++) {
+            for (int i = 0; i < 16; i++) {
+                Assertions.assertTrue(ids.add(helper.genId(past + tick)), "回填ID重复");
+            }
+        }
+        Assertions.assertThrows(SequenceExhaustedException.class, () -> helper.genId(past));
+        // past + 16 evicts past, which is reported as used up and never issued from 0 again
+        Assertions.assertTrue(ids.add(helper.genId(past + 16)));
+        Assertions.assertThrows(SequenceExhaustedException.class, () -> helper.genId(past));
+        Assertions.assertEquals(1, helper.getBackfillSequence().getEvictedHits());
+
+        helper.setOverflowPolicy(SequenceOverflowPolicy.BORROW);
+        helper.setMaxBorrowTicks(20);
+        long id = helper.genId(past);
+        Assertions.assertTrue(ids.add(id), "借用的回填ID重复");
+        Assertions.assertEquals(past + 16, helper.parseTimeInMillis(id), "应借用窗口内的下一时间单位");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> helper.genId(LocalDateTime.of(2023, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void testGenIdWithPacked_BackfillEvicted() {
+        // window of 16 ticks of 4 bits of autoincrement
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 4,
+                1, 16
+        );
+        helper.setOverflowPolicy(SequenceOverflowPolicy.FAIL);
+        BackfillTickSequence backfill = helper.getBackfillSequence();
+        long past = System.currentTimeMillis() - 60_000;
+        Set<Long> ids = new HashSet<>();
+        // newest first inside the window, every tick has its own slot
+        for (int i = 15; i >= 0; i--) {
+            long id = helper.genId(past + i);
+            Assertions.assertTrue(ids.add(id), "回填ID重复");
+            Assertions.assertEquals(past + i, helper.parseTimeInMillis(id), "窗口内未发过号的tick不应被当作用完");
+        }
+        Assertions.assertEquals(-1, backfill.getWatermark());
+        // past - 16 was never issued, but the newer past holds its slot
+        Assertions.assertThrows(SequenceExhaustedException.class, () -> helper.genId(past - 16));
+        Assertions.assertEquals(0, backfill.getEvictedHits(), "水位之上的tick不是被淘汰的");
+
+        // past + 16 evicts past and raises the watermark, past is never issued from 0 again
+        Assertions.assertTrue(ids.add(helper.genId(past + 16)));
+        Assertions.assertEquals(past - helper.getStartTime(), backfill.getWatermark(), "被淘汰的tick应抬高水位");
+        Assertions.assertThrows(SequenceExhaustedException.class, () -> helper.genId(past));
+        Assertions.assertEquals(1, backfill.getEvictedHits());
+
+        // far more ticks than the window, nothing issued twice and the watermark only moves forward
+        Random random = new Random(7);
+        long watermark = backfill.getWatermark();
+        for (int i = 0; i < 20000; i++) {
+            try {
+                Assertions.assertTrue(ids.add(helper.genId(past + random.nextInt(1024))), "回填ID重复");
+            } catch (SequenceExhaustedException ignored) {
+            }
+            Assertions.assertTrue(backfill.getWatermark() >= watermark, "水位回退");
+            watermark = backfill.getWatermark();
+        }
+        Assertions.assertTrue(ids.size() > 16 * 16, "窗口内的tick未继续发号");
+    }
+}
@@ -0,0 +1,69 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdHelperRangeTest {
+    static final LocalDateTime START_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void testIdRange() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(START_TIME, TimeUnit.MILLISECONDS, 1, 1, 40, 3, 8, 12);
+        long base = System.currentTimeMillis() - 60_000;
+        List<Long> ids = new ArrayList<>();
+        for (int t = 0; t < 10; t++) {
+            for (int i = 0; i < 5; i++) {
+                ids.add(helper.genId(base + t));
+            }
+        }
+        long[] range = helper.idRange(base + 3, base + 6);
+        for (long id : ids) {
+            long time = helper.parseTimeInMillis(id);
+            Assertions.assertEquals(time >= base + 3 && time <= base + 6, id >= range[0] && id <= range[1], "区间与时间不一致: " + time);
+        }
+        // bounds are tight: adjacent units meet without a gap
+        Assertions.assertEquals(helper.maxIdAt(base + 2) + 1, helper.minIdAt(base + 3));
+        Assertions.assertEquals(base + 3, helper.parseTimeInMillis(range[0]));
+        Assertions.assertEquals(base + 6, helper.parseTimeInMillis(range[1]));
+        Assertions.assertEquals(helper.minIdAt(base), helper.minIdAt(helper.parseTime(helper.minIdAt(base))));
+
+        Assertions.assertEquals(0, helper.minIdAt(0));
+        Assertions.assertEquals(-1, helper.maxIdAt(0), "起始时间之前不应有ID");
+        range = helper.idRange(base + 6, base + 3);
+        Assertions.assertTrue(range[1] < range[0], "反向区间应为空");
+    }
+
+    @Test
+    void testIdRangeInSeconds() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(START_TIME, TimeUnit.SECONDS, 1, 1, 31, 3, 8, 21);
+        long second = System.currentTimeMillis() / 1000 * 1000;
+        long id = helper.genId(second + 500);
+        Assertions.assertEquals(helper.minIdAt(second), helper.minIdAt(second + 999), "同一秒内下界应相同");
+        long[] range = helper.idRange(second + 999, second + 1);
+        Assertions.assertTrue(id >= range[0] && id <= range[1]);
+    }
+
+    @Test
+    void testIdRangeOfTenantAndNode() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(START_TIME, TimeUnit.MILLISECONDS, 1, 1, 40, 3, 8, 12);
+        long now = System.currentTimeMillis();
+        long[] range = helper.idRange(now - 1000, now + 1000, 2, 1);
+        long id = helper.genIdForTenant(2);
+        Assertions.assertTrue(id >= range[0] && id <= range[1], "租户ID不在区间内");
+        Assertions.assertEquals(2, (range[0] >>> helper.getLeftOfTenant()) & helper.getMaxTenantNum());
+        Assertions.assertEquals(1, (range[1] >>> helper.getLeftOfNode()) & helper.getMaxNodeNum());
+        Assertions.assertEquals(0, range[0] & helper.getMaxAutoincrementNum());
+        Assertions.assertEquals(helper.getMaxAutoincrementNum(), range[1] & helper.getMaxAutoincrementNum());
+
+        long[] anyNode = helper.idRange(now - 1000, now + 1000, 2, -1);
+        Assertions.assertTrue(anyNode[0] <= range[0] && anyNode[1] >= range[1]);
+        Assertions.assertArrayEquals(helper.idRange(now - 1000, now + 1000), helper.idRange(now - 1000, now + 1000, -1, -1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> helper.idRange(now, now, 8, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> helper.idRange(now, now, 1, 256));
+    }
+}
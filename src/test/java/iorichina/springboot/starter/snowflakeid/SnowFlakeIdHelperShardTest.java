@@ -0,0 +1,76 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdHelperShardTest {
+    static SnowFlakeIdHelper helper(long nodeId, long bitsOfAutoincrement) {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, nodeId, 40, 3, 8, bitsOfAutoincrement
+        );
+        helper.setBitsOfShard(3);
+        return helper;
+    }
+
+    @Test
+    void testGenIdForShard() throws InterruptedException {
+        SnowFlakeIdHelper helper = helper(5, 12);
+        Assertions.assertEquals(7, helper.getMaxShardNum());
+        Assertions.assertEquals(5 << 3, helper.getNodeId(), "节点应左移出分片位");
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executorService = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                int shard = i;
+                executorService.submit(() -> {
+                    long last = -1;
+                    for (int j = 0; j < 5000; j++) {
+                        long id = shard % 2 == 0 ? helper.genIdForShard(shard) : helper.genIdsForShard(shard, 3)[2];
+                        Assertions.assertEquals(shard, helper.shardOf(id), "分片不正确");
+                        Assertions.assertEquals(5, (id >>> helper.getLeftOfNode() >>> 3) & 31, "节点不正确");
+                        Assertions.assertTrue(id > last, "分片内ID未递增");
+                        Assertions.assertTrue(ids.add(id), "ID重复: " + id);
+                        last = id;
+                    }
+                });
+            }
+        }
+        Assertions.assertEquals(40000, ids.size());
+        Assertions.assertEquals(0, helper.shardOf(helper.genId()), "genId()应属于分片0");
+        Assertions.assertTrue(ids.add(helper.genId()));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> helper.genIdForShard(8));
+    }
+
+    @Test
+    void testHotShard() {
+        // 4 bits of autoincrement only has 16 sequence in each millis
+        SnowFlakeIdHelper helper = helper(1, 4);
+        helper.setTimeSource(new ManualTimeSource(System.currentTimeMillis(), TimeUnit.MILLISECONDS));
+        helper.setOverflowPolicy(SequenceOverflowPolicy.FAIL);
+        helper.genIdsForShard(1, 16);
+        Assertions.assertThrows(SequenceExhaustedException.class, () -> helper.genIdForShard(1));
+        Assertions.assertEquals(2, helper.shardOf(helper.genIdForShard(2)), "热点分片不应耗尽其他分片");
+        Assertions.assertEquals(0, helper.shardOf(helper.genId()));
+    }
+
+    @Test
+    void testBitsOfShard() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> helper(32, 12), "nodeId超出分片后的节点位");
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 3, 40, 3, 8, 12
+        );
+        Assertions.assertEquals(0, helper.shardOf(helper.genId()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> helper.setBitsOfShard(9));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> helper.genIdForShard(1));
+    }
+}
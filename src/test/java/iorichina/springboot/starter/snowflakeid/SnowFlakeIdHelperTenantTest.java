@@ -0,0 +1,71 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdHelperTenantTest {
+    @Test
+    void testGenIdOfTenant() throws InterruptedException {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 8
+        );
+        SnowFlakeIdDecoder decoder = new SnowFlakeIdDecoder(helper);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executorService = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                int tenantId = i;
+                executorService.submit(() -> {
+                    long last = -1;
+                    long[] tenants = new long[1];
+                    for (int j = 0; j < 5000; j++) {
+                        long id = helper.genIdForTenant(tenantId);
+                        Assertions.assertTrue(id > last, "同一租户ID未递增: " + id);
+                        Assertions.assertTrue(ids.add(id), "ID重复: " + id);
+                        decoder.decode(new long[]{id}, 0, null, tenants, null, null, 0, 1);
+                        Assertions.assertEquals(tenantId, tenants[0], "tenantId解析不正确");
+                        last = id;
+                    }
+                });
+            }
+            // tenant of this helper shares the sequence of genId()
+            executorService.submit(() -> {
+                for (int j = 0; j < 5000; j++) {
+                    Assertions.assertTrue(ids.add(helper.genId()), "genId()与genIdForTenant(int)重复");
+                }
+            });
+        }
+        Assertions.assertEquals(9 * 5000, ids.size());
+        long issued = helper.getStats().getIssued();
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> helper.genIdForTenant(8));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> helper.genIdForTenant(-1));
+        Assertions.assertEquals(issued, helper.getStats().getIssued(), "无效的tenantId不应计入发号数");
+    }
+
+    @Test
+    void testGenIdOfTenant_Independent() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.SECONDS,
+                1, 1, 31, 3, 8, 4
+        );
+        helper.setTimeSource(new ManualTimeSource(System.currentTimeMillis(), TimeUnit.MILLISECONDS));
+        helper.setOverflowPolicy(SequenceOverflowPolicy.FAIL);
+        for (int i = 0; i < 16; i++) {
+            helper.genIdForTenant(2);
+        }
+        Assertions.assertThrows(SequenceExhaustedException.class, () -> helper.genIdForTenant(2));
+        for (int i = 0; i < 16; i++) {
+            helper.genIdForTenant(3);
+            helper.genId();
+        }
+    }
+}
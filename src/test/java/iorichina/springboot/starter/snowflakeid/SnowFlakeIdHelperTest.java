@@ -11,6 +11,7 @@ import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+@SuppressWarnings("deprecation")
 class SnowFlakeIdHelperTest {
     @Test
     void testGenIdAndParseTime_InMillis_seconds() {
@@ -128,4 +129,27 @@ class SnowFlakeIdHelperTest {
         // Additional assertions can be added based on expected behavior
         assertEquals(startTime.toInstant(OffsetTime.now().getOffset()).toEpochMilli() / 10, parsedTime.toInstant(OffsetTime.now().getOffset()).toEpochMilli() / 10, "Parsed time should match the original time");
     }
+
+    @Test
+    void testRecyclable_OverflowPolicy() {
+        ManualTimeSource clock = new ManualTimeSource(1_760_000_000_000L, TimeUnit.MILLISECONDS);
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(LocalDateTime.of(2024, 1, 1, 0, 0), TimeUnit.MILLISECONDS, 0, 0, 41, 0, 0, 2, 10);
+        helper.setTimeSource(clock);
+        helper.setOverflowPolicy(SequenceOverflowPolicy.FAIL);
+        java.util.Set<Long> ids = new java.util.HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(ids.add(helper.genId()), "重复ID");
+        }
+        Assertions.assertThrows(SequenceExhaustedException.class, helper::genId, "回绕到0的时间单位应按overflowPolicy用尽");
+        Assertions.assertThrows(SequenceExhaustedException.class, helper::genId, "回绕后同一时间单位仍应用尽");
+        clock.advance(1, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(ids.add(helper.genId()), "下一时间单位不应重复");
+        }
+
+        helper.setOverflowPolicy(SequenceOverflowPolicy.BORROW);
+        for (int i = 0; i < 12; i++) {
+            Assertions.assertTrue(ids.add(helper.genId()), "BORROW不应重复");
+        }
+    }
 }
@@ -0,0 +1,85 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdIdentifierGeneratorTest {
+    @Entity(name = "Item")
+    static class Item {
+        @Id
+        @SnowFlakeId
+        Long id;
+        String name;
+    }
+
+    static SnowFlakeIdHelper helper() {
+        return new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 12
+        );
+    }
+
+    static SharedSessionContractImplementor session() {
+        return (SharedSessionContractImplementor) Proxy.newProxyInstance(SharedSessionContractImplementor.class.getClassLoader(),
+                new Class<?>[]{SharedSessionContractImplementor.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    @Test
+    void testPoolOfSession() {
+        SnowFlakeIdHelper helper = helper();
+        SnowFlakeIdIdentifierGenerator generator = new SnowFlakeIdIdentifierGenerator(helper, 50);
+        SharedSessionContractImplementor session = session();
+        long last = -1;
+        for (int i = 0; i < 120; i++) {
+            long id = (Long) generator.generate(session, null);
+            Assertions.assertTrue(id > last, "会话内ID未递增");
+            last = id;
+        }
+        Assertions.assertEquals(150, helper.getStats().getIssued(), "未按池大小批量预留");
+
+        // another session never takes IDs left in the pool of the last one
+        long id = (Long) generator.generate(session(), null);
+        Assertions.assertTrue(id > last);
+        Assertions.assertEquals(200, helper.getStats().getIssued());
+    }
+
+    @Test
+    void testPersist() {
+        SnowFlakeIdHelper helper = helper();
+        try (SnowFlakeIdHibernateHelpers ignored = new SnowFlakeIdHibernateHelpers(helper, null);
+             SessionFactory sessionFactory = new Configuration()
+                     .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:snowflakeid;DB_CLOSE_DELAY=-1")
+                     .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                     .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "20")
+                     .addAnnotatedClass(Item.class)
+                     .buildSessionFactory()) {
+            sessionFactory.inTransaction(session -> {
+                for (int i = 0; i < 100; i++) {
+                    Item item = new Item();
+                    item.name = "item" + i;
+                    session.persist(item);
+                }
+            });
+            List<Long> ids = sessionFactory.fromSession(session -> session.createQuery("select id from Item order by id", Long.class).getResultList());
+            Assertions.assertEquals(100, ids.stream().distinct().count(), "ID重复");
+            Assertions.assertEquals(1, (ids.get(0) >>> helper.getLeftOfNode()) & helper.getMaxNodeNum());
+            Assertions.assertEquals(100, helper.getStats().getIssued(), "未按batch_size批量预留");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdMetricsTest {
+    @Test
+    void testMetricsWithPacked() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.SECONDS,
+                1, 1, 31, 3, 8, 21
+        );
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new SnowFlakeIdMetrics(helper, "orders").bindTo(registry);
+        helper.genId();
+        helper.genIds(9);
+        Assertions.assertEquals(10, registry.get("snowflakeid.ids.issued").tag("name", "orders").functionCounter().count());
+        double remaining = registry.get("snowflakeid.sequence.remaining").gauge().value();
+        Assertions.assertTrue(remaining <= helper.getMaxAutoincrementNum() + 1 && remaining >= helper.getMaxAutoincrementNum() - 10);
+        Assertions.assertNotNull(registry.find("snowflakeid.sequence.overflow").tag("path", "park").functionCounter());
+        Assertions.assertNotNull(registry.find("snowflakeid.backfill.evicted").functionCounter());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testMetricsWithRecyclable() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 4, 1
+        );
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new SnowFlakeIdMetrics(helper, "default").bindTo(registry);
+        for (int i = 0; i < 100; i++) {
+            helper.genId();
+        }
+        Assertions.assertEquals(100, registry.get("snowflakeid.ids.issued").functionCounter().count());
+        Assertions.assertTrue(registry.get("snowflakeid.recyclable.cas.retries").functionCounter().count()
+                + registry.get("snowflakeid.recyclable.lock.fallbacks").functionCounter().count() > 0);
+    }
+}
@@ -0,0 +1,38 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class SnowFlakeIdRingBufferTest {
+    @Test
+    void testGenIdWithRingBuffer() {
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 12
+        );
+        try (SnowFlakeIdRingBuffer ringBuffer = new SnowFlakeIdRingBuffer(helper, 1000, 50, 0, true)) {
+            Assertions.assertEquals(1024, ringBuffer.getSize());
+            Assertions.assertEquals(1024, ringBuffer.getOccupancy(), "初始化应填满");
+            Set<Long> ids = ConcurrentHashMap.newKeySet();
+            try (ExecutorService executorService = Executors.newFixedThreadPool(8)) {
+                for (int i = 0; i < 8; i++) {
+                    executorService.submit(() -> {
+                        for (int j = 0; j < 5000; j++) {
+                            Assertions.assertTrue(ids.add(ringBuffer.genId()), "ID重复");
+                        }
+                    });
+                }
+            }
+            Assertions.assertEquals(40000, ids.size());
+            Assertions.assertTrue(ids.add(helper.genId()), "直接生成的ID不应与环中ID重复");
+        }
+    }
+}
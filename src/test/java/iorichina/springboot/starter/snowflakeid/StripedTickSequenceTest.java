@@ -0,0 +1,114 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+class StripedTickSequenceTest {
+    @Test
+    void testOlderTickNeverStartsAfterNewer() throws InterruptedException {
+        // 2 stripes of 8, tick 6 is started on the home stripe of main thread only
+        StripedTickSequence sequence = new StripedTickSequence(4, 2);
+        Assertions.assertEquals(6, sequence.tickOf(sequence.getAndIncrementWithTick(6)));
+        Set<Long> packed = ConcurrentHashMap.newKeySet();
+        // 12 threads of any home stripe, the sibling stripe is reached by home or by stealing
+        for (int i = 0; i < 12; i++) {
+            Thread.ofPlatform().start(() -> packed.add(sequence.getAndIncrementWithTick(5))).join();
+        }
+        Set<Long> stripes = new HashSet<>();
+        for (long first : packed) {
+            Assertions.assertFalse(TickSequence.isExhausted(first));
+            Assertions.assertEquals(6, sequence.tickOf(first), "落后的条带在更新的tick之后开始了旧tick");
+            stripes.add(sequence.sequenceOf(first) / 8);
+        }
+        Assertions.assertEquals(12, packed.size(), "序列重复");
+        Assertions.assertEquals(2, stripes.size(), "未覆盖两个条带");
+    }
+
+    @Test
+    void testTicksOfThreadNeverGoBack() throws Exception {
+        // ticks read by threads race with the clock, half of the requests are a tick behind
+        StripedTickSequence sequence = new StripedTickSequence(6, 8);
+        AtomicLong clock = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executorService = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                futures.add(executorService.submit(() -> {
+                    long last = -1;
+                    Set<Long> seen = new HashSet<>();
+                    for (int i = 0; i < 20000; i++) {
+                        long now = 0 == (i & 1) ? clock.incrementAndGet() >> 4 : Math.max(0, (clock.get() >> 4) - 1);
+                        long first = sequence.getAndIncrementWithTick(now);
+                        if (TickSequence.isExhausted(first)) {
+                            continue;
+                        }
+                        long tick = sequence.tickOf(first);
+                        Assertions.assertTrue(tick >= last, "线程的tick回退: " + last + " -> " + tick);
+                        Assertions.assertTrue(seen.add(first), "序列重复: " + first);
+                        last = tick;
+                    }
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    @Test
+    void testExplicitTimeIsExactWhileNewestMoves() throws Exception {
+        // explicit times of the clock race with current-time IDs moving the newest tick of every stripe
+        SnowFlakeIdHelper helper = new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                TimeUnit.MILLISECONDS,
+                1, 1, 40, 3, 8, 12,
+                4, 1024
+        );
+        ManualTimeSource clock = new ManualTimeSource(System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        helper.setTimeSource(clock);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread ticking = Thread.ofPlatform().start(() -> {
+            while (!done.get()) {
+                clock.advance(1, TimeUnit.MILLISECONDS);
+                Thread.onSpinWait();
+            }
+        });
+        try (ExecutorService executorService = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                futures.add(executorService.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        long time = clock.currentTime(TimeUnit.MILLISECONDS);
+                        try {
+                            long id = helper.genId(time);
+                            Assertions.assertEquals(time, helper.parseTimeInMillis(id), "指定时间的ID落在了其他毫秒");
+                            Assertions.assertTrue(ids.add(id), "ID重复: " + id);
+                        } catch (SequenceExhaustedException ignored) {
+                            // the stripes moved past time and retired it as used up
+                        }
+                        Assertions.assertTrue(ids.add(helper.genId()), "ID重复");
+                    }
+                }));
+            }
+        } finally {
+            done.set(true);
+            ticking.join();
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+class UuidV7SnowFlakeIdHelperTest {
+    static SnowFlakeIdHelper helper(TimeUnit unit, long bitsOfTime, long bitsOfAutoincrement) {
+        return new SnowFlakeIdHelper(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                unit,
+                1, 1, bitsOfTime, 3, 8, bitsOfAutoincrement
+        );
+    }
+
+    @Test
+    void testGenUuid() {
+        UuidV7SnowFlakeIdHelper helper = new UuidV7SnowFlakeIdHelper(helper(TimeUnit.MILLISECONDS, 40, 12));
+        Assertions.assertEquals(0, helper.getBitsOfFraction());
+        Assertions.assertEquals(51, helper.getBitsOfRandom());
+
+        UUID uuid = helper.genUuid();
+        Assertions.assertEquals(7, uuid.version(), "版本不是7");
+        Assertions.assertEquals(2, uuid.variant(), "变体不是RFC 9562");
+        Assertions.assertTrue(Math.abs(UuidV7SnowFlakeIdHelper.parseTimeInMillis(uuid) - System.currentTimeMillis()) < 1000, "unix_ts_ms不正确");
+        Assertions.assertEquals(UUID.fromString(uuid.toString()), uuid);
+
+        UUID last = uuid;
+        Set<UUID> uuids = new HashSet<>();
+        for (UUID next : helper.genUuids(10000)) {
+            Assertions.assertTrue(next.compareTo(last) > 0, "UUID未递增");
+            Assertions.assertTrue(uuids.add(next), "UUID重复");
+            last = next;
+        }
+        long[] bits = new long[2];
+        helper.genUuid(bits, 0);
+        Assertions.assertTrue(new UUID(bits[0], bits[1]).compareTo(last) > 0);
+    }
+
+    @Test
+    void testFill() {
+        SnowFlakeIdHelper ids = helper(TimeUnit.MILLISECONDS, 40, 12);
+        UuidV7SnowFlakeIdHelper helper = new UuidV7SnowFlakeIdHelper(ids);
+        long[] bits = new long[2 + 5000 * 2];
+        helper.fill(bits, 2, 5000);
+        Assertions.assertEquals(0, bits[0]);
+        Assertions.assertEquals(0, bits[1]);
+        long lastId = -1;
+        for (int i = 0; i < 5000; i++) {
+            UUID uuid = new UUID(bits[2 + 2 * i], bits[3 + 2 * i]);
+            Assertions.assertEquals(7, uuid.version());
+            long id = helper.parseId(uuid);
+            Assertions.assertTrue(id > lastId, "解析出的ID未递增");
+            Assertions.assertEquals(ids.parseTimeInMillis(id), UuidV7SnowFlakeIdHelper.parseTimeInMillis(uuid), "unix_ts_ms与ID时间不一致");
+            lastId = id;
+        }
+        Assertions.assertEquals(5000, ids.getStats().getIssued(), "批量生成应一次预留ID");
+    }
+
+    @Test
+    void testFractionOfMillis() {
+        // 10 bits of microseconds in the millisecond before tenant, node and autoincrement
+        SnowFlakeIdHelper ids = helper(TimeUnit.MICROSECONDS, 50, 2);
+        UuidV7SnowFlakeIdHelper helper = new UuidV7SnowFlakeIdHelper(ids);
+        Assertions.assertEquals(10, helper.getBitsOfFraction());
+        UUID last = helper.genUuid();
+        for (int i = 0; i < 10000; i++) {
+            UUID uuid = helper.genUuid();
+            Assertions.assertTrue(uuid.compareTo(last) > 0, "同一毫秒内UUID未按微秒递增");
+            Assertions.assertEquals(ids.parseTimeInMillis(helper.parseId(uuid)), UuidV7SnowFlakeIdHelper.parseTimeInMillis(uuid));
+            last = uuid;
+        }
+
+        SnowFlakeIdHelper seconds = helper(TimeUnit.SECONDS, 31, 21);
+        seconds.setTimeSource(new ManualTimeSource(System.currentTimeMillis(), TimeUnit.MILLISECONDS));
+        UuidV7SnowFlakeIdHelper secondsHelper = new UuidV7SnowFlakeIdHelper(seconds);
+        long id = seconds.genId();
+        Assertions.assertEquals(id + 1, secondsHelper.parseId(secondsHelper.genUuid()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new UuidV7SnowFlakeIdHelper(helper(TimeUnit.NANOSECONDS, 12, 40)));
+    }
+}
@@ -0,0 +1,78 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class WorkerIdAssignerTest {
+    @Test
+    void testFileLockWorkerIdAssigner(@TempDir Path dir) throws IOException {
+        WorkerIdAssigner hint = maxNodeNum -> 3;
+        FileLockWorkerIdAssigner first = new FileLockWorkerIdAssigner(dir, "app", hint);
+        FileLockWorkerIdAssigner second = new FileLockWorkerIdAssigner(dir, "app", hint);
+        long id1 = first.assign(255);
+        long id2 = second.assign(255);
+        Assertions.assertEquals(3, id1);
+        Assertions.assertNotEquals(id1, id2, "同一主机的节点ID不应重复");
+
+        // 重启后复用缓存的节点ID
+        second.close();
+        FileLockWorkerIdAssigner restarted = new FileLockWorkerIdAssigner(dir, "app", hint);
+        Assertions.assertEquals(id2, restarted.assign(255));
+        restarted.close();
+        first.close();
+    }
+
+    @Test
+    void testFileLockWorkerIdAssigner_Exhausted(@TempDir Path dir) throws IOException {
+        List<FileLockWorkerIdAssigner> assigners = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                assigners.add(new FileLockWorkerIdAssigner(dir, "app-" + i, WorkerIdAssigner.IP));
+                assigners.get(i).assign(3);
+            }
+            try (FileLockWorkerIdAssigner assigner = new FileLockWorkerIdAssigner(dir, "app", WorkerIdAssigner.IP)) {
+                Assertions.assertThrows(IllegalStateException.class, () -> assigner.assign(3));
+            }
+        } finally {
+            for (FileLockWorkerIdAssigner assigner : assigners) {
+                assigner.close();
+            }
+        }
+    }
+
+    @Test
+    void testFileLockWorkerIdAssigner_Reused(@TempDir Path dir) throws IOException {
+        try (FileLockWorkerIdAssigner assigner = new FileLockWorkerIdAssigner(dir, "app", maxNodeNum -> 3)) {
+            long nodeId = assigner.assign(255);
+            for (int i = 0; i < 8; i++) {
+                Assertions.assertEquals(nodeId, assigner.assign(255), "重复分配应复用已租用的nodeId");
+            }
+            try (Stream<Path> locks = Files.list(dir)) {
+                Assertions.assertEquals(1, locks.filter(path -> path.toString().endsWith(".lock")).count());
+            }
+            try (FileLockWorkerIdAssigner other = new FileLockWorkerIdAssigner(dir, "other", maxNodeNum -> 3)) {
+                Assertions.assertEquals(nodeId + 1, other.assign(255), "重复分配不应占用多余的nodeId");
+            }
+        }
+    }
+
+    @Test
+    void testFileLockWorkerIdAssigner_ReleasedSkipsCache(@TempDir Path dir) throws IOException {
+        Files.writeString(dir.resolve("app.node"), "9");
+        try (FileLockWorkerIdAssigner assigner = new FileLockWorkerIdAssigner(dir, "app", maxNodeNum -> 3)) {
+            Assertions.assertEquals(9, assigner.assign(255), "应优先租用缓存的nodeId");
+            // 检查点前释放后, 恢复的副本不应都租用镜像中缓存的nodeId
+            assigner.close();
+            Assertions.assertEquals(3, assigner.assign(255), "释放后应从hint重新租用nodeId");
+            Assertions.assertEquals(3, assigner.assign(255), "重新租用后应复用nodeId");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package iorichina.springboot.starter.snowflakeid;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * vectorized path of {@link SnowFlakeIdDecoder}, only loaded when jdk.incubator.vector is in the boot layer
+ */
+final class VectorizedIdDecoder implements SnowFlakeIdDecoder.Vectorized {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public int decode(SnowFlakeIdDecoder decoder, long[] ids, int idsOff, long[] times, long[] tenants, long[] nodes, long[] sequences, int off, int len) {
+        int bound = SPECIES.loopBound(len);
+        int leftOfTime = (int) decoder.leftOfTime;
+        int leftOfTenant = (int) decoder.leftOfTenant;
+        int leftOfNode = (int) decoder.leftOfNode;
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            LongVector id = LongVector.fromArray(SPECIES, ids, idsOff + i);
+            if (null != times) {
+                id.lanewise(VectorOperators.LSHR, leftOfTime).add(decoder.startTime).mul(decoder.millisPerUnit).intoArray(times, off + i);
+            }
+            if (null != tenants) {
+                id.lanewise(VectorOperators.LSHR, leftOfTenant).and(decoder.maxTenantNum).intoArray(tenants, off + i);
+            }
+            if (null != nodes) {
+                id.lanewise(VectorOperators.LSHR, leftOfNode).and(decoder.maxNodeNum).intoArray(nodes, off + i);
+            }
+            if (null != sequences) {
+                id.and(decoder.maxAutoincrementNum).intoArray(sequences, off + i);
+            }
+        }
+        return bound;
+    }
+}